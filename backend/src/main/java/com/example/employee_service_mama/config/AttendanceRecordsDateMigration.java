@@ -0,0 +1,93 @@
+package com.example.employee_service_mama.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// One-time copy of the legacy text attendance_records.date (yyyy-MM-dd or MM/dd/yyyy)
+// into the typed record_date column. Only rows with record_date IS NULL are touched, so reruns are no-ops.
+// Values are split and range-checked before a date is built, so one malformed value (2024-13-45)
+// cannot abort the conversion; rows left unconverted are reported.
+@Configuration
+public class AttendanceRecordsDateMigration {
+
+    private static final int MAX_REPORTED_REJECTS = 20;
+
+    private static final String LEGACY_COLUMN_EXISTS = """
+            SELECT COUNT(*) FROM information_schema.columns
+            WHERE table_name = 'attendance_records' AND column_name = 'date'
+            """;
+
+    // Nested CASEs: PostgreSQL does not short-circuit AND, make_date must only see in-range parts
+    private static final String MIGRATE = """
+            WITH parts AS (
+                SELECT id,
+                       CASE WHEN v ~ '^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2}$' THEN split_part(v, '-', 1)::int
+                            WHEN v ~ '^[0-9]{1,2}/[0-9]{1,2}/[0-9]{4}$' THEN split_part(v, '/', 3)::int END AS y,
+                       CASE WHEN v ~ '^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2}$' THEN split_part(v, '-', 2)::int
+                            WHEN v ~ '^[0-9]{1,2}/[0-9]{1,2}/[0-9]{4}$' THEN split_part(v, '/', 1)::int END AS m,
+                       CASE WHEN v ~ '^[0-9]{4}-[0-9]{1,2}-[0-9]{1,2}$' THEN split_part(v, '-', 3)::int
+                            WHEN v ~ '^[0-9]{1,2}/[0-9]{1,2}/[0-9]{4}$' THEN split_part(v, '/', 2)::int END AS d
+                FROM (
+                    SELECT id, TRIM(date) AS v
+                    FROM attendance_records
+                    WHERE record_date IS NULL AND date IS NOT NULL
+                ) raw
+            ),
+            parsed AS (
+                SELECT id, m,
+                       CASE WHEN y >= 1 AND m BETWEEN 1 AND 12 AND d BETWEEN 1 AND 31
+                            THEN make_date(y, m, 1) + (d - 1) END AS dt
+                FROM parts
+            )
+            UPDATE attendance_records r
+            SET record_date = p.dt
+            FROM parsed p
+            WHERE r.id = p.id
+              AND p.dt IS NOT NULL
+              AND EXTRACT(MONTH FROM p.dt) = p.m
+            """;
+
+    private static final String COUNT_REJECTS = """
+            SELECT COUNT(*) FROM attendance_records
+            WHERE record_date IS NULL AND date IS NOT NULL
+            """;
+
+    private static final String SAMPLE_REJECTS = """
+            SELECT id, date FROM attendance_records
+            WHERE record_date IS NULL AND date IS NOT NULL
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    @Bean
+    @Order(1) // before AttendanceRecordsUniquenessMigration
+    public ApplicationRunner attendanceRecordsDateMigrationRunner(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            try {
+                Integer legacy = jdbcTemplate.queryForObject(LEGACY_COLUMN_EXISTS, Integer.class);
+                if (legacy == null || legacy == 0) return;
+
+                int migrated = jdbcTemplate.update(MIGRATE);
+                if (migrated > 0) {
+                    System.out.println("✔ attendance_records.record_date migrated for " + migrated + " rows");
+                }
+
+                Long rejects = jdbcTemplate.queryForObject(COUNT_REJECTS, Long.class);
+                if (rejects != null && rejects > 0) {
+                    List<String> sample = jdbcTemplate.query(SAMPLE_REJECTS,
+                            (rs, i) -> "id " + rs.getInt("id") + " '" + rs.getString("date") + "'",
+                            MAX_REPORTED_REJECTS);
+                    System.out.println("⚠ attendance_records: " + rejects
+                            + " rows with an unparseable legacy date left without record_date → " + sample);
+                }
+            } catch (Exception e) {
+                System.out.println("⚠ attendance_records date migration skipped → " + e.getMessage());
+            }
+        };
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.employee_service_mama.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// One CSV sheet row per employee per date. The streaming upload and the absentee fill insert with
+// ON CONFLICT (record_date, empid) DO NOTHING, so concurrent uploads of the same sheet cannot double rows;
+// that needs this unique index. Legacy duplicates keep their first row, then the index is created —
+// startup fails if it cannot be. Runs after AttendanceRecordsDateMigration has filled record_date.
+@Configuration
+public class AttendanceRecordsUniquenessMigration {
+
+    private static final String DELETE_DUPLICATES = """
+            WITH ranked AS (
+                SELECT id, ROW_NUMBER() OVER (PARTITION BY record_date, empid ORDER BY id) AS rn
+                FROM attendance_records
+                WHERE record_date IS NOT NULL AND empid IS NOT NULL
+            )
+            DELETE FROM attendance_records r USING ranked d
+            WHERE r.id = d.id AND d.rn > 1
+            """;
+
+    private static final String DATE_EMPID_INDEX = """
+            CREATE UNIQUE INDEX IF NOT EXISTS uk_attendance_records_date_empid
+            ON attendance_records (record_date, empid)
+            """;
+
+    // Superseded by the unique index (same columns)
+    private static final String DROP_PLAIN_INDEX = "DROP INDEX IF EXISTS idx_attendance_records_date_empid";
+
+    @Bean
+    @Order(2)
+    public ApplicationRunner attendanceRecordsUniquenessMigrationRunner(JdbcTemplate jdbcTemplate,
+                                                                        PlatformTransactionManager transactionManager) {
+        return args -> {
+            Integer removed = new TransactionTemplate(transactionManager)
+                    .execute(tx -> jdbcTemplate.update(DELETE_DUPLICATES));
+            if (removed != null && removed > 0) {
+                System.out.println("✔ Duplicate attendance_records rows removed: " + removed);
+            }
+
+            try {
+                jdbcTemplate.execute(DATE_EMPID_INDEX);
+            } catch (Exception e) {
+                throw new IllegalStateException("attendance_records: cannot enforce one row per empid per date (uk_attendance_records_date_empid)", e);
+            }
+            jdbcTemplate.execute(DROP_PLAIN_INDEX);
+        };
+    }
+}
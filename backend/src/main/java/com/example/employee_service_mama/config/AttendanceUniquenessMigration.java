@@ -0,0 +1,56 @@
+package com.example.employee_service_mama.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// One attendance row per user per day. Login, auto-absent, sandwich and finalization all write with
+// ON CONFLICT (user_id, date), which needs this unique index; ddl-auto only logs a warning when it
+// cannot add the constraint (legacy duplicates). Duplicates are collapsed to the most complete row
+// (logged out > logged in > latest written), then the index is created — startup fails if it cannot be.
+@Configuration
+public class AttendanceUniquenessMigration {
+
+    private static final String DELETE_DUPLICATES = """
+            WITH ranked AS (
+                SELECT id,
+                       ROW_NUMBER() OVER (
+                           PARTITION BY user_id, date
+                           ORDER BY (logout_time IS NOT NULL) DESC,
+                                    (login_time IS NOT NULL) DESC,
+                                    COALESCE(updated_at, created_at) DESC NULLS LAST,
+                                    id DESC
+                       ) AS rn
+                FROM attendance
+            )
+            DELETE FROM attendance a USING ranked r
+            WHERE a.id = r.id AND r.rn > 1
+            """;
+
+    // Same name as the entity's @UniqueConstraint, so an existing constraint satisfies IF NOT EXISTS
+    private static final String USER_DATE_INDEX = """
+            CREATE UNIQUE INDEX IF NOT EXISTS uk_attendance_user_date
+            ON attendance (user_id, date)
+            """;
+
+    @Bean
+    public ApplicationRunner attendanceUniquenessMigrationRunner(JdbcTemplate jdbcTemplate,
+                                                                 PlatformTransactionManager transactionManager) {
+        return args -> {
+            Integer removed = new TransactionTemplate(transactionManager)
+                    .execute(tx -> jdbcTemplate.update(DELETE_DUPLICATES));
+            if (removed != null && removed > 0) {
+                System.out.println("✔ Duplicate attendance rows removed: " + removed);
+            }
+
+            try {
+                jdbcTemplate.execute(USER_DATE_INDEX);
+            } catch (Exception e) {
+                throw new IllegalStateException("attendance: cannot enforce one row per user per day (uk_attendance_user_date)", e);
+            }
+        };
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.employee_service_mama.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    // HR attendance filter results, keyed by the resolved date range (see AttendanceFilterService)
+    public static final String ATTENDANCE_FILTER_CACHE = "attendanceFilterCache";
+
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager manager = new CaffeineCacheManager(ATTENDANCE_FILTER_CACHE);
+        manager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(200)
+                .expireAfterWrite(Duration.ofMinutes(10))
+                .recordStats());
+        manager.setAllowNullValues(false);
+        return manager;
+    }
+}
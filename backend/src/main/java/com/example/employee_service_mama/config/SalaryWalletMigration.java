@@ -0,0 +1,103 @@
+package com.example.employee_service_mama.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// The old accrual loop saved a fresh, empty wallet on every run (eager orElse), leaving users with
+// several open cycles. Per user, the open cycle with the most earned + deducted is kept, anything
+// on the others is folded into it (ledger rows re-pointed), the rest are deleted — in one transaction.
+// Then one active cycle per user is enforced; accrual / deduction SQL relies on it, so startup
+// fails if the unique index cannot be created.
+@Configuration
+public class SalaryWalletMigration {
+
+    // Open cycle → the open cycle kept for its user
+    private static final String DUPLICATES = """
+            WITH ranked AS (
+                SELECT id,
+                       ROW_NUMBER() OVER w AS rn,
+                       FIRST_VALUE(id) OVER w AS keep_id
+                FROM salary
+                WHERE cycle_end IS NULL
+                WINDOW w AS (
+                    PARTITION BY user_id
+                    ORDER BY COALESCE(current_month_earned, 0) + COALESCE(deduction, 0) DESC, id
+                )
+            ),
+            dup AS (
+                SELECT id, keep_id FROM ranked WHERE rn > 1
+            )
+            """;
+
+    private static final String FOLD_INTO_KEPT = DUPLICATES + """
+            UPDATE salary k
+            SET current_month_earned = k.current_month_earned + t.earned,
+                deduction = COALESCE(k.deduction, 0) + t.deduction,
+                last_updated = NOW()
+            FROM (
+                SELECT d.keep_id,
+                       SUM(COALESCE(s.current_month_earned, 0)) AS earned,
+                       SUM(COALESCE(s.deduction, 0)) AS deduction
+                FROM dup d
+                JOIN salary s ON s.id = d.id
+                GROUP BY d.keep_id
+            ) t
+            WHERE k.id = t.keep_id
+            """;
+
+    private static final String REPOINT_ACCRUALS = DUPLICATES + """
+            UPDATE salary_accrual l SET salary_id = d.keep_id FROM dup d WHERE l.salary_id = d.id
+            """;
+
+    private static final String REPOINT_DEDUCTIONS = DUPLICATES + """
+            UPDATE salary_deduction l SET salary_id = d.keep_id FROM dup d WHERE l.salary_id = d.id
+            """;
+
+    private static final String DELETE_DUPLICATES = DUPLICATES + """
+            DELETE FROM salary s USING dup d WHERE s.id = d.id
+            """;
+
+    private static final String ACTIVE_CYCLE_INDEX = """
+            CREATE UNIQUE INDEX IF NOT EXISTS uk_salary_active_user
+            ON salary (user_id) WHERE cycle_end IS NULL
+            """;
+
+    // Index-only scan for the active-cycle payroll totals (PayrollSummaryService fallback)
+    private static final String ACTIVE_CYCLE_TOTALS_INDEX = """
+            CREATE INDEX IF NOT EXISTS idx_salary_active_cycle
+            ON salary (cycle_start) INCLUDE (monthly_salary, current_month_earned, deduction)
+            WHERE cycle_end IS NULL
+            """;
+
+    @Bean
+    public ApplicationRunner salaryWalletMigrationRunner(JdbcTemplate jdbcTemplate,
+                                                         PlatformTransactionManager transactionManager) {
+        return args -> {
+            Integer removed = new TransactionTemplate(transactionManager).execute(tx -> {
+                jdbcTemplate.update(FOLD_INTO_KEPT);
+                jdbcTemplate.update(REPOINT_ACCRUALS);
+                jdbcTemplate.update(REPOINT_DEDUCTIONS);
+                return jdbcTemplate.update(DELETE_DUPLICATES);
+            });
+            if (removed != null && removed > 0) {
+                System.out.println("✔ Duplicate active salary cycles merged: " + removed);
+            }
+
+            try {
+                jdbcTemplate.execute(ACTIVE_CYCLE_INDEX);
+            } catch (Exception e) {
+                throw new IllegalStateException("salary: cannot enforce one active cycle per user (uk_salary_active_user)", e);
+            }
+
+            try {
+                jdbcTemplate.execute(ACTIVE_CYCLE_TOTALS_INDEX);
+            } catch (Exception e) {
+                System.out.println("⚠ salary active-cycle totals index skipped → " + e.getMessage());
+            }
+        };
+    }
+}
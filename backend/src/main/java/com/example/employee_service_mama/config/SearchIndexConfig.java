@@ -0,0 +1,35 @@
+package com.example.employee_service_mama.config;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+// Indexes that ddl-auto cannot express (pg_trgm / expression indexes) for the HR attendance search.
+// All statements are idempotent; a failure (e.g. no permission for CREATE EXTENSION) is logged, not fatal.
+@Configuration
+public class SearchIndexConfig {
+
+    private static final List<String> STATEMENTS = List.of(
+            "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+            "CREATE INDEX IF NOT EXISTS idx_users_full_name_trgm ON users USING gin (lower(full_name) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_users_empid_trgm ON users USING gin (lower(empid) gin_trgm_ops)",
+            "CREATE INDEX IF NOT EXISTS idx_attendance_date_id ON attendance (date DESC, id DESC)"
+    );
+
+    @Bean
+    public ApplicationRunner searchIndexInitializer(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            for (String sql : STATEMENTS) {
+                try {
+                    jdbcTemplate.execute(sql);
+                } catch (Exception e) {
+                    System.out.println("⚠ Search index skipped: " + sql + " → " + e.getMessage());
+                }
+            }
+            System.out.println("✔ Attendance search indexes ensured");
+        };
+    }
+}
@@ -1,12 +1,23 @@
 package com.example.employee_service_mama.controller;
 
+import com.example.employee_service_mama.dto.AttendanceHistoryDTO;
+import com.example.employee_service_mama.dto.AttendanceHistoryPage;
+import com.example.employee_service_mama.dto.AttendanceSearchPage;
+import com.example.employee_service_mama.dto.AttendanceSummaryDTO;
 import com.example.employee_service_mama.model.Attendance;
+import com.example.employee_service_mama.service.AttendanceRecomputeService;
 import com.example.employee_service_mama.service.AttendanceService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/attendance")
@@ -23,6 +34,7 @@ import java.util.List;
 public class AttendanceController {
 
     private final AttendanceService attendanceService;
+    private final AttendanceRecomputeService recomputeService;
 
     // OLD → Get ALL attendance (list)
     @GetMapping("/user/{userId}")
@@ -42,6 +54,46 @@ public class AttendanceController {
         return ResponseEntity.ok(attendanceService.getAttendancehistory(userId));
     }
 
+    // History page (keyset) → ?year=&month=&size=&beforeDate=&beforeId= (cursor from the previous page)
+    @GetMapping("/history/{userId}/page")
+    public ResponseEntity<AttendanceHistoryPage> getAttendanceHistoryPage(
+            @PathVariable Integer userId,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeDate,
+            @RequestParam(required = false) Integer beforeId,
+            @RequestParam(required = false) Integer size
+    ) {
+        return ResponseEntity.ok(
+                attendanceService.getHistoryPage(userId, year, month, beforeDate, beforeId, size));
+    }
+
+    // History month bucket → past months are finalized, so the browser may cache them
+    @GetMapping("/history/{userId}/month/{year}/{month}")
+    public ResponseEntity<List<AttendanceHistoryDTO>> getAttendanceHistoryMonth(
+            @PathVariable Integer userId,
+            @PathVariable int year,
+            @PathVariable int month
+    ) {
+        CacheControl cache = YearMonth.of(year, month).isBefore(YearMonth.now())
+                ? CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate()
+                : CacheControl.noCache();
+
+        return ResponseEntity.ok()
+                .cacheControl(cache)
+                .body(attendanceService.getHistoryMonth(userId, year, month));
+    }
+
+    // All dashboard counters in one read (optionally for a year / month)
+    @GetMapping("/summary/{userId}")
+    public ResponseEntity<AttendanceSummaryDTO> getSummary(
+            @PathVariable Integer userId,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) Integer month
+    ) {
+        return ResponseEntity.ok(attendanceService.summary(userId, year, month));
+    }
+
     // OLD → Present days
     @GetMapping("/presentdays/{userId}")
     public ResponseEntity<Integer> getPresentDays(@PathVariable Integer userId) {
@@ -66,6 +118,18 @@ public class AttendanceController {
         return ResponseEntity.ok(attendanceService.late(userId));
     }
 
+    // Re-apply the attendance rules to [from, to] (optionally ?userIds=1,2,3).
+    // dryRun=true (default) only reports the diff; dryRun=false writes it.
+    @PostMapping("/recompute")
+    public ResponseEntity<Map<String, Object>> recompute(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<Integer> userIds,
+            @RequestParam(required = false, defaultValue = "true") boolean dryRun
+    ) {
+        return ResponseEntity.ok(recomputeService.recompute(from, to, userIds, dryRun));
+    }
+
     // OLD → Login
     @PostMapping("/login/{userId}")
     public ResponseEntity<String> login(@PathVariable Integer userId) {
@@ -84,4 +148,21 @@ public class AttendanceController {
     ) {
         return ResponseEntity.ok(attendanceService.getAllAttendance(search, date));
     }
+
+    // HR grid search (paged) → ?search=&date=&from=&to=&size=&beforeDate=&beforeId=&count=
+    // Pass the previous page's nextBeforeDate / nextBeforeId to continue; count=false skips the total
+    @GetMapping("/search")
+    public ResponseEntity<AttendanceSearchPage> searchAttendance(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate beforeDate,
+            @RequestParam(required = false) Integer beforeId,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false, defaultValue = "true") boolean count
+    ) {
+        return ResponseEntity.ok(attendanceService.searchAttendance(
+                search, date, from, to, beforeDate, beforeId, size, count));
+    }
 }
@@ -4,9 +4,12 @@ import com.example.employee_service_mama.model.AttendanceCsvFile;
 import com.example.employee_service_mama.service.AttendanceCsvFileService;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Map;
 
@@ -31,6 +34,12 @@ import java.util.Map;
         return ResponseEntity.ok(service.saveBulk(records));
     }
 
+    // Multipart CSV upload → parsed as a stream and written in batches (form field "file")
+    @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> upload(@RequestParam("file") MultipartFile file) throws IOException {
+        return ResponseEntity.ok(service.importCsv(file.getInputStream()));
+    }
+
     @GetMapping("/all")
     public ResponseEntity<List<AttendanceCsvFile>> getAll() {
         return ResponseEntity.ok(service.getAll());
@@ -4,18 +4,16 @@ package com.example.employee_service_mama.controller;
 
 import com.example.employee_service_mama.dto.AttendanceStatsDTO;
 import com.example.employee_service_mama.model.AttendanceCsvFile;
+import com.example.employee_service_mama.service.AttendanceDailySummaryService;
 import com.example.employee_service_mama.service.AttendanceFilterService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
 import java.util.List;
 import java.util.Map;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/attendance")
@@ -32,14 +30,22 @@ import java.util.stream.Collectors;
 )public class AttendanceFilterController {
 
     private final AttendanceFilterService service;
+    private final AttendanceDailySummaryService dailySummaryService;
 
     @GetMapping("/hr-filter")
     public List<AttendanceCsvFile> filterAttendance(
             @RequestParam(required = false) String month,
-            @RequestParam(required = false) String date
+            @RequestParam(required = false) String date,
+            @RequestParam(required = false) Integer year
     ) {
         System.out.println(month + " " + date);
-        return service.filterAttendance(month, date);
+        return service.filterAttendance(month, date, year);
+    }
+
+    // Hit / miss counters of the hr-filter cache
+    @GetMapping("/hr-filter/cache-stats")
+    public Map<String, Object> filterCacheStats() {
+        return service.cacheStats();
     }
 
     @PutMapping("/update-status/{id}")
@@ -48,54 +54,19 @@ import java.util.stream.Collectors;
     }
 
     @PutMapping("/update-bulk") //added by venkatasagar to get attendance
-    public String updateBulk(@RequestBody List<AttendanceCsvFile> updates) {
-
-        updates.forEach(update -> {
-            service.updateStatus(update.getId(), update.getStatus());
-        });
-
-        return "Bulk update successful!";
+    public Map<String, Object> updateBulk(@RequestBody List<AttendanceCsvFile> updates) {
+        // Single statement for all rows; per-id result in "results"
+        return service.updateStatusBulk(updates);
     }
 
+    // Per-date counters from attendance_daily_summary → ?from=&to= (yyyy-MM-dd) limits the range
     @GetMapping("/daily-summary")
-    public List<AttendanceStatsDTO> getDailySummary() {
-
-        List<AttendanceCsvFile> all = service.getAll();
-
-        // Group by exact date
-        Map<String, List<AttendanceCsvFile>> grouped = all.stream()
-                .collect(Collectors.groupingBy(AttendanceCsvFile::getDate));
-
-        List<AttendanceStatsDTO> summary = new ArrayList<>();
-
-        grouped.forEach((date, list) -> {
-            long present = list.stream()
-                    .filter(a -> a.getStatus().equalsIgnoreCase("Present"))
-                    .count();
-
-            long absent = list.stream()
-                    .filter(a -> a.getStatus().equalsIgnoreCase("Absent"))
-                    .count();
-
-            summary.add(new AttendanceStatsDTO(date, present, absent));
-        });
-
-        // Sort using actual date object, not text
-        summary.sort(Comparator.comparing(s -> {
-            try {
-                return LocalDate.parse(s.getDate(),
-                        DateTimeFormatter.ofPattern("MM/dd/yyyy"));
-            } catch (Exception e) {
-                return LocalDate.MIN;
-            }
-        }));
-
-        return summary;
+    public List<AttendanceStatsDTO> getDailySummary(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return dailySummaryService.getDailySummary(from, to);
     }
 
-
-
-
-
 }
 
@@ -1,10 +1,19 @@
 package com.example.employee_service_mama.controller;
 
 import com.example.employee_service_mama.service.AttendanceCsvFileService;
+import com.example.employee_service_mama.service.AttendanceFinalizationService;
 import com.example.employee_service_mama.service.AttendanceService;
+import com.example.employee_service_mama.service.SandwichPolicyService;
+import com.example.employee_service_mama.service.WalletService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/attendance/test")
 @RequiredArgsConstructor
@@ -21,36 +30,65 @@ import org.springframework.web.bind.annotation.*;
 
     private final AttendanceService service;
     private final AttendanceCsvFileService service1;
+    private final SandwichPolicyService sandwichPolicyService;
+    private final AttendanceFinalizationService finalizationService;
+    private final WalletService walletService;
     @GetMapping("/finalize")
     public String runFinalizeFromCsv() {
         service1.finalizeDailyAttendanceFromCsv();
         return "CSV Finalization executed manually";
     }
 
-    // 👉 Manually trigger 1:05 PM auto-absent logic
-    @GetMapping("/weekend")
-    public String runWeekendMarking() {
-        service.markWeekendDays();
-        return "Weekend Marking executed manually";
+    // 👉 Backfill finalization for missed days → ?from=2025-01-01&to=2025-01-31
+    @GetMapping("/finalize/range")
+    public Map<String, Object> runFinalizeRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return finalizationService.finalizeRange(from, to);
+    }
+
+    // 👉 One-time cleanup of materialized WEEKEND rows (now synthesized on read)
+    @GetMapping("/weekend/purge")
+    public String purgeWeekendRows() {
+        int removed = service.purgeMaterializedWeekendRows();
+        return "Weekend rows purged — " + removed + " removed";
     }
+
+    // 👉 Manually trigger 1:05 PM auto-absent logic
     @GetMapping("/autoAbsent")
     public String runAutoAbsent() {
-        service.autoAbsentAfter1PM();
-        return "Auto Absent executed manually";
+        return "Auto Absent executed manually — " + service.autoAbsentBulk(LocalDate.now());
     }
 
     // 👉 Manually trigger 6:30 PM auto-logout logic
     @GetMapping("/autoLogout")
     public String runAutoLogout() {
-        service.autoLogoutForForgotUsers();
-        return "Auto Logout executed manually";
+        int count = service.autoLogoutBulk(LocalDate.now()).size();
+        return "Auto Logout executed manually — " + count + " users logged out";
     }
 
     // 👉 Manually trigger sandwich policy
     @GetMapping("/sandwich")
-    public String runSandwichPolicyFix() {
-        service.sandwichPolicyFix();
-        return "Sandwich Policy executed manually";
+    public String runSandwichPolicyFix(@RequestParam(required = false) String date) {
+        LocalDate target = (date == null || date.isBlank())
+                ? LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.FRIDAY))
+                : LocalDate.parse(date);
+
+        int rows = sandwichPolicyService.reevaluate(target);
+        return "Sandwich Policy executed manually for " + target + " — " + rows + " rows";
+    }
+
+    // 👉 Manually trigger 6:45 PM salary accrual (safe to rerun — ledger credits only changes)
+    @GetMapping("/salary")
+    public String runSalaryAccrual(@RequestParam(required = false) String date) {
+        LocalDate target = (date == null || date.isBlank()) ? LocalDate.now() : LocalDate.parse(date);
+        return "Salary accrual executed manually — " + walletService.accrueDailySalary(target);
     }
-}
 
+    // 👉 Re-derive active-cycle earnings from the salary_accrual ledger
+    @GetMapping("/salary/reconcile")
+    public String reconcileSalary() {
+        return "Salary reconciled — " + walletService.reconcileEarnedFromLedger() + " wallets corrected";
+    }
+}
@@ -1,12 +1,27 @@
 package com.example.employee_service_mama.controller;
 
+import com.example.employee_service_mama.dto.DeductionEntry;
+import com.example.employee_service_mama.dto.PayrollPage;
+import com.example.employee_service_mama.dto.PayrollSimulationRequest;
+import com.example.employee_service_mama.dto.PayrollSummaryDTO;
 import com.example.employee_service_mama.dto.WalletResponse;
+import com.example.employee_service_mama.model.SalaryDeduction;
 import com.example.employee_service_mama.model.Wallet;
+import com.example.employee_service_mama.service.PayrollExportService;
+import com.example.employee_service_mama.service.PayrollSimulationService;
+import com.example.employee_service_mama.service.SalaryDeductionService;
 import com.example.employee_service_mama.service.WalletService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/salary")
@@ -24,6 +39,9 @@ import java.util.List;
 public class WalletController {
 
     private final WalletService walletService;
+    private final PayrollExportService payrollExportService;
+    private final SalaryDeductionService deductionService;
+    private final PayrollSimulationService simulationService;
 
     @GetMapping("/monthsalary/{userId}")
     public Float getMonthlySalary(@PathVariable Integer userId){
@@ -35,6 +53,12 @@ public class WalletController {
         return walletService.getDailyRate(userId);
     }
 
+    // Active-cycle payroll totals in one call (replaces totalsalary / netpayable / totaldeduction)
+    @GetMapping("/summary")
+    public PayrollSummaryDTO getPayrollSummary() {
+        return walletService.getPayrollSummary();
+    }
+
     @GetMapping("/totalsalary")
     public Double getTotalSalary(){
         return walletService.getTotalSalary();
@@ -42,8 +66,21 @@ public class WalletController {
 
     @PutMapping("/add/deduction/{empid}/{amount}")
     public String addDeduction(@PathVariable String empid,
-                               @PathVariable Double amount){
-        return walletService.addDeduction(empid, amount);
+                               @PathVariable Double amount,
+                               @RequestParam(required = false) String reason){
+        return walletService.addDeduction(empid, amount, reason);
+    }
+
+    // Many deductions in one request → [{ "empid": "...", "amount": 500, "reason": "..." }, ...]
+    @PostMapping("/deduction/bulk")
+    public Map<String, Object> addDeductionsBulk(@RequestBody(required = false) List<DeductionEntry> entries) {
+        return deductionService.applyBulk(entries);
+    }
+
+    // Active-cycle deduction ledger, newest first
+    @GetMapping("/deductions/{userId}")
+    public List<SalaryDeduction> getDeductions(@PathVariable Integer userId) {
+        return deductionService.activeCycleDeductions(userId);
     }
 
     @GetMapping("/netpayable")
@@ -56,12 +93,46 @@ public class WalletController {
         return walletService.getTotalDeduction();
     }
 
-    // ✅ changed to return DTO instead of entity
+    // ✅ changed to return DTO instead of entity; active cycle only (closed cycles → /page?cycleStart= or /export)
     @GetMapping("/all")
     public List<WalletResponse> getAllSalaryDetails() {
         return walletService.getAllSalaryResponses();
     }
 
+    // Keyset page of one cycle (active cycles by default) → ?cycleStart=2025-01-24&afterId=&size=
+    @GetMapping("/page")
+    public PayrollPage getPayrollPage(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate cycleStart,
+            @RequestParam(required = false) Integer afterId,
+            @RequestParam(required = false) Integer size
+    ) {
+        return payrollExportService.page(cycleStart, afterId, size);
+    }
+
+    // Streamed payroll download → ?cycleStart=2025-01-24&format=csv|jsonl
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayroll(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate cycleStart,
+            @RequestParam(required = false, defaultValue = "csv") String format
+    ) {
+        boolean jsonl = "jsonl".equalsIgnoreCase(format);
+        String fileName = "payroll-" + (cycleStart == null ? "active" : cycleStart.toString()) + (jsonl ? ".jsonl" : ".csv");
+
+        StreamingResponseBody body = out -> payrollExportService.export(cycleStart, format, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(jsonl ? MediaType.parseMediaType("application/x-ndjson") : MediaType.parseMediaType("text/csv"))
+                .body(body);
+    }
+
+    // What-if net payable for a cycle under one or more policies; read-only
+    // → { "cycleStart": null, "policies": [{ "name": "unpaid-leave", "leaveWeight": 0 }], "includeEmployees": false }
+    @PostMapping("/simulate")
+    public Map<String, Object> simulatePayroll(@RequestBody PayrollSimulationRequest request) {
+        return simulationService.simulate(request);
+    }
+
     @GetMapping("/salary-details/{userId}")
     public Wallet getSalaryDetails(@PathVariable Integer userId) {
         return walletService.getSalaryDetails(userId);
@@ -0,0 +1,24 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// One row of the HR attendance grid (attendance + employee name, no entity graph)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceGridRowDTO {
+    private Integer id;
+    private Integer userId;
+    private String empid;
+    private String fullName;
+    private LocalDate date;
+    private LocalTime loginTime;
+    private LocalTime logoutTime;
+    private String status;
+    private String remarks;
+}
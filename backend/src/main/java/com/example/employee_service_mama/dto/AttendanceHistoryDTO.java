@@ -0,0 +1,21 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Lightweight history row (no User / audit columns). id is null for synthesized weekend / holiday days.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceHistoryDTO {
+    private Integer id;
+    private LocalDate date;
+    private LocalTime loginTime;
+    private LocalTime logoutTime;
+    private String status;
+    private String remarks;
+}
@@ -0,0 +1,19 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// One keyset page; pass nextBeforeDate / nextBeforeId back as beforeDate / beforeId for the next page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceHistoryPage {
+    private List<AttendanceHistoryDTO> items;
+    private boolean hasMore;
+    private LocalDate nextBeforeDate;
+    private Integer nextBeforeId;
+}
@@ -0,0 +1,20 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Keyset page of the HR grid; total is only counted when requested (first page)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSearchPage {
+    private List<AttendanceGridRowDTO> items;
+    private Long total;
+    private boolean hasMore;
+    private LocalDate nextBeforeDate;
+    private Integer nextBeforeId;
+}
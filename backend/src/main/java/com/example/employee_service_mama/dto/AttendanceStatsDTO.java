@@ -9,4 +9,8 @@ public class AttendanceStatsDTO {
     private String date;
     private long present;
     private long absent;
+    private long leave;
+    private long late;
+    private long halfDay;
+    private long total;
 }
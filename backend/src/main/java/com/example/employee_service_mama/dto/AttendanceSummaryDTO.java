@@ -0,0 +1,18 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceSummaryDTO {
+    private Integer userId;
+    private Integer year;     // null → all-time totals
+    private Integer month;    // null → whole year / all-time
+    private long presentDays;
+    private long absentDays;
+    private long halfDays;
+    private long lateDays;
+}
@@ -0,0 +1,15 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of a bulk deduction request
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeductionEntry {
+    private String empid;
+    private Double amount;
+    private String reason;
+}
@@ -0,0 +1,23 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Outcome of a scheduled / bulk attendance or payroll job run
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRunReport {
+    private String job;
+    private LocalDate date;
+    private long rowsAffected;
+    private long durationMs;
+
+    @Override
+    public String toString() {
+        return job + " (" + date + ") — rows: " + rowsAffected + " | " + durationMs + " ms";
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Keyset page of the payroll listing; pass nextAfterId back as afterId for the next page
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollPage {
+    private List<PayrollRowDTO> items;
+    private boolean hasMore;
+    private Integer nextAfterId;
+}
@@ -0,0 +1,17 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One what-if scenario: share of the daily rate earned per attendance status
+// (defaults mirror the live accrual: PRESENT / LEAVE = 1, HALF_DAY = 0.5)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollPolicy {
+    private String name;
+    private double presentWeight = 1.0;
+    private double halfDayWeight = 0.5;
+    private double leaveWeight = 1.0;
+}
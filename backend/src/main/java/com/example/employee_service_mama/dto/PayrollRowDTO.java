@@ -0,0 +1,25 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// One wallet (salary cycle) row of the payroll listing / export
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollRowDTO {
+    private Integer walletId;
+    private Integer userId;
+    private String empid;
+    private String fullName;
+    private String department;        // Users.role, as in WalletResponse
+    private Double monthlySalary;
+    private Double dailyRate;
+    private Double currentMonthEarned;
+    private Double deduction;
+    private LocalDate cycleStart;
+    private LocalDate cycleEnd;
+}
@@ -0,0 +1,19 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// cycleStart null → active cycles; every policy is evaluated over the same attendance pass.
+// includeEmployees adds a per-employee × per-policy breakdown — sized by the wallet count, so opt-in
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PayrollSimulationRequest {
+    private LocalDate cycleStart;
+    private List<PayrollPolicy> policies;
+    private boolean includeEmployees = false;
+}
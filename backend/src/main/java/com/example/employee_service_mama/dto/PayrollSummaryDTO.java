@@ -0,0 +1,20 @@
+package com.example.employee_service_mama.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+// Totals over active salary cycles (cycle_end IS NULL)
+@Data
+@AllArgsConstructor
+public class PayrollSummaryDTO {
+    private LocalDate cycleStart;
+    private long employees;
+    private double totalMonthlySalary;
+    private double netPayable;              // earned so far in the cycle
+    private double totalDeduction;
+    private double payableAfterDeduction;
+    private OffsetDateTime refreshedAt;
+}
@@ -3,6 +3,7 @@ package com.example.employee_service_mama.kafka;
 
 import com.example.employee_service_mama.model.Users;
 import com.example.employee_service_mama.repository.UserRepository;
+import com.example.employee_service_mama.service.AttendanceDayCache;
 import com.example.employee_service_mama.service.WebSocketService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -19,6 +20,7 @@ public class AttendanceConsumer {
 
     private final WebSocketService webSocketService;
     private final UserRepository userRepository;
+    private final AttendanceDayCache dayCache;
 
     @KafkaListener(topics = "employee_service.public.attendance", groupId = "employee_group")
     public void consume(String message) throws Exception {
@@ -36,5 +38,20 @@ public class AttendanceConsumer {
             );
         }
     }
+
+    // Per-instance group: every instance sees every change and drops its cached row.
+    // Only changes made while running matter, so new groups start at the latest offset.
+    @KafkaListener(
+            topics = "employee_service.public.attendance",
+            groupId = "employee_group-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void invalidate(String message) throws Exception {
+        JsonNode after = new ObjectMapper().readTree(message).get("after");
+        if (after != null && after.hasNonNull("user_id")) {
+            // Row may have been written by another instance — re-read it on next access
+            dayCache.evict(after.get("user_id").asInt());
+        }
+    }
 }
 
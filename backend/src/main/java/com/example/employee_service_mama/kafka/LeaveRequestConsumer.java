@@ -1,5 +1,6 @@
 package com.example.employee_service_mama.kafka;
 
+import com.example.employee_service_mama.service.ApprovedLeaveIndex;
 import com.example.employee_service_mama.service.WebSocketService;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -7,11 +8,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
+import java.util.Set;
+
 @Service
 @RequiredArgsConstructor
 public class LeaveRequestConsumer {
 
     private final WebSocketService webSocketService;
+    private final ApprovedLeaveIndex leaveIndex;
 
     @KafkaListener(topics = "employee_service.public.leave_request", groupId = "employee_group")
     public void consume(String message) throws Exception {
@@ -27,4 +32,35 @@ public class LeaveRequestConsumer {
             }
         }
     }
+
+    // Per-instance group: approvals made on any instance reach every instance's leave index.
+    // Any change re-reads the user's approved ranges from the database instead of diffing before/after:
+    // without REPLICA IDENTITY FULL Debezium sends "before" as null on updates and with only the key
+    // on deletes. A delete that names no user rebuilds the whole index.
+    @KafkaListener(
+            topics = "employee_service.public.leave_request",
+            groupId = "employee_group-leave-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void updateLeaveIndex(String message) throws Exception {
+        if (message == null) return; // tombstone after a delete
+        JsonNode payload = new ObjectMapper().readTree(message).get("payload");
+        if (payload == null) return;
+
+        Set<Integer> users = new HashSet<>();
+        addUser(users, payload.get("before"));
+        addUser(users, payload.get("after"));
+
+        if (users.isEmpty()) {
+            leaveIndex.rebuild();
+        } else {
+            users.forEach(leaveIndex::refreshUser);
+        }
+    }
+
+    private static void addUser(Set<Integer> users, JsonNode row) {
+        if (row == null || row.isNull()) return;
+        JsonNode userId = row.get("user_id");
+        if (userId != null && !userId.isNull()) users.add(userId.asInt());
+    }
 }
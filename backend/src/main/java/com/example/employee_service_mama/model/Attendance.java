@@ -8,7 +8,13 @@ import java.time.*;
 import java.time.temporal.ChronoUnit;
 
 @Entity
-@Table(name = "attendance")
+@Table(
+        name = "attendance",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_attendance_user_date",
+                columnNames = {"user_id", "date"}
+        )
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -52,6 +58,16 @@ public class Attendance {
     @Column(name = "updated_at", nullable = true)
     private OffsetDateTime updatedAt;
 
+    // Sandwich policy: status / remarks the weekend row had before it was forced to ABSENT,
+    // restored when the rule no longer applies (null on rows the policy inserted)
+    @Column(name = "sandwich_prev_status")
+    @JsonIgnore
+    private String sandwichPrevStatus;
+
+    @Column(name = "sandwich_prev_remarks", columnDefinition = "TEXT")
+    @JsonIgnore
+    private String sandwichPrevRemarks;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = OffsetDateTime.now();
@@ -1,12 +1,17 @@
 package com.example.employee_service_mama.model;
 
+import com.example.employee_service_mama.util.SheetDateDeserializer;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.persistence.*;
 import lombok.*;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "attendance_records")
+@Table(
+        name = "attendance_records",
+        uniqueConstraints = @UniqueConstraint(name = "uk_attendance_records_date_empid", columnNames = {"record_date", "empid"})
+)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,8 +28,10 @@ public class AttendanceCsvFile {
     @Column(name = "name")
     private String name;
 
-    @Column(name = "date")
-    private String date;//changed now String to LocalDate
+    // Typed column; the legacy text "date" column is only read once by config.AttendanceRecordsDateMigration
+    @Column(name = "record_date")
+    @JsonDeserialize(using = SheetDateDeserializer.class)
+    private LocalDate date;
 
     @Column(name = "domain")
     private String domain;
@@ -0,0 +1,51 @@
+package com.example.employee_service_mama.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+// Per-date counters of attendance_records (CSV sheet), maintained by AttendanceDailySummaryService
+@Entity
+@Table(
+        name = "attendance_daily_summary",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_attendance_daily_summary_date",
+                columnNames = {"summary_date"}
+        )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceDailySummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "summary_date", nullable = false)
+    private LocalDate date;
+
+    @Column(name = "total_count", nullable = false)
+    private Integer total;
+
+    @Column(name = "present_count", nullable = false)
+    private Integer present;
+
+    @Column(name = "absent_count", nullable = false)
+    private Integer absent;
+
+    @Column(name = "leave_count", nullable = false)
+    private Integer leave;
+
+    @Column(name = "late_count", nullable = false)
+    private Integer late;
+
+    @Column(name = "half_day_count", nullable = false)
+    private Integer halfDay;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,50 @@
+package com.example.employee_service_mama.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+// Per-user, per-month attendance counters, maintained by AttendanceSummaryService
+@Entity
+@Table(
+        name = "attendance_summary",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_attendance_summary_user_month",
+                columnNames = {"user_id", "year", "month"}
+        )
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttendanceSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Column(nullable = false)
+    private Integer month;
+
+    @Column(name = "present_days", nullable = false)
+    private Integer presentDays;
+
+    @Column(name = "absent_days", nullable = false)
+    private Integer absentDays;
+
+    @Column(name = "half_days", nullable = false)
+    private Integer halfDays;
+
+    @Column(name = "late_days", nullable = false)
+    private Integer lateDays;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,51 @@
+package com.example.employee_service_mama.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+
+// Ledger of daily salary accruals; one row per user per date, so reruns never double-count.
+// A later status correction updates the row and credits only the difference.
+@Entity
+@Table(
+        name = "salary_accrual",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_salary_accrual_user_date",
+                columnNames = {"user_id", "accrual_date"}
+        ),
+        indexes = @Index(name = "idx_salary_accrual_salary", columnList = "salary_id")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalaryAccrual {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    // Wallet (salary cycle) the accrual was credited to
+    @Column(name = "salary_id", nullable = false)
+    private Integer salaryId;
+
+    @Column(name = "accrual_date", nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    @Column(name = "created_at")
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private OffsetDateTime updatedAt;
+}
@@ -0,0 +1,40 @@
+package com.example.employee_service_mama.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+// Append-only ledger of deductions applied to a salary cycle; salary.deduction is its running total
+@Entity
+@Table(
+        name = "salary_deduction",
+        indexes = @Index(name = "idx_salary_deduction_salary", columnList = "salary_id")
+)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SalaryDeduction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Wallet (salary cycle) the deduction was applied to
+    @Column(name = "salary_id", nullable = false)
+    private Integer salaryId;
+
+    @Column(name = "user_id", nullable = false)
+    private Integer userId;
+
+    private String empid;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    private String reason;
+
+    @Column(name = "created_at")
+    private OffsetDateTime createdAt;
+}
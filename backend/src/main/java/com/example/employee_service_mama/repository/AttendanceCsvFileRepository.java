@@ -1,12 +1,39 @@
 package com.example.employee_service_mama.repository;
 
 import com.example.employee_service_mama.model.AttendanceCsvFile;
+import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
 import java.util.List;
 
 public interface AttendanceCsvFileRepository extends JpaRepository<AttendanceCsvFile, Integer> {
 
-    List<AttendanceCsvFile> findByDate(String date); // add by went to check duplicates
+    List<AttendanceCsvFile> findByDate(LocalDate date); // add by went to check duplicates
+
+    boolean existsByDate(LocalDate date);
+
+    // Month / date filters → range scan on uk_attendance_records_date_empid
+    List<AttendanceCsvFile> findByDateBetweenOrderByDateAscIdAsc(LocalDate from, LocalDate to);
+
+    // Absent row for every employee that has no record for the date (one statement, no user list in heap)
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO attendance_records (empid, name, record_date, domain, remark, status)
+    SELECT u.empid, u.full_name, :date, u.domain, '', 'Absent'
+    FROM users u
+    WHERE NOT EXISTS (
+            SELECT 1 FROM attendance_records r
+            WHERE r.record_date = :date AND r.empid = u.empid
+        )
+    ON CONFLICT (record_date, empid) DO NOTHING
+    """,
+            nativeQuery = true)
+    int insertMissingAbsentees(@Param("date") LocalDate date);
 
 
 }
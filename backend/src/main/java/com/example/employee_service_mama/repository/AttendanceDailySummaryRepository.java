@@ -0,0 +1,74 @@
+package com.example.employee_service_mama.repository;
+
+import com.example.employee_service_mama.model.AttendanceDailySummary;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AttendanceDailySummaryRepository extends JpaRepository<AttendanceDailySummary, Integer> {
+
+    Optional<AttendanceDailySummary> findByDate(LocalDate date);
+
+    List<AttendanceDailySummary> findAllByOrderByDateAsc();
+
+    List<AttendanceDailySummary> findByDateBetweenOrderByDateAsc(LocalDate from, LocalDate to);
+
+    // Re-aggregate the counters of the given dates from attendance_records
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO attendance_daily_summary
+        (summary_date, total_count, present_count, absent_count, leave_count, late_count, half_day_count, updated_at)
+    SELECT r.record_date,
+           COUNT(*),
+           COUNT(*) FILTER (WHERE LOWER(r.status) = 'present'),
+           COUNT(*) FILTER (WHERE LOWER(r.status) = 'absent'),
+           COUNT(*) FILTER (WHERE LOWER(r.status) = 'leave'),
+           COUNT(*) FILTER (WHERE LOWER(r.status) = 'late'),
+           COUNT(*) FILTER (WHERE LOWER(r.status) IN ('half_day', 'half-day', 'halfday')),
+           NOW()
+    FROM attendance_records r
+    WHERE r.record_date IN (:dates)
+    GROUP BY r.record_date
+    ON CONFLICT (summary_date) DO UPDATE SET
+        total_count    = EXCLUDED.total_count,
+        present_count  = EXCLUDED.present_count,
+        absent_count   = EXCLUDED.absent_count,
+        leave_count    = EXCLUDED.leave_count,
+        late_count     = EXCLUDED.late_count,
+        half_day_count = EXCLUDED.half_day_count,
+        updated_at     = EXCLUDED.updated_at
+    """,
+            nativeQuery = true)
+    int refresh(@Param("dates") List<LocalDate> dates);
+
+    // One-time backfill of every imported date
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO attendance_daily_summary
+        (summary_date, total_count, present_count, absent_count, leave_count, late_count, half_day_count, updated_at)
+    SELECT r.record_date,
+           COUNT(*),
+           COUNT(*) FILTER (WHERE LOWER(r.status) = 'present'),
+           COUNT(*) FILTER (WHERE LOWER(r.status) = 'absent'),
+           COUNT(*) FILTER (WHERE LOWER(r.status) = 'leave'),
+           COUNT(*) FILTER (WHERE LOWER(r.status) = 'late'),
+           COUNT(*) FILTER (WHERE LOWER(r.status) IN ('half_day', 'half-day', 'halfday')),
+           NOW()
+    FROM attendance_records r
+    WHERE r.record_date IS NOT NULL
+    GROUP BY r.record_date
+    ON CONFLICT (summary_date) DO NOTHING
+    """,
+            nativeQuery = true)
+    int rebuildAll();
+}
@@ -1,7 +1,10 @@
 package com.example.employee_service_mama.repository;
 
+import com.example.employee_service_mama.dto.AttendanceGridRowDTO;
+import com.example.employee_service_mama.dto.AttendanceHistoryDTO;
 import com.example.employee_service_mama.model.Attendance;
 import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -10,6 +13,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 @Repository
@@ -22,6 +26,10 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Integer>
     @Query("SELECT a FROM Attendance a WHERE a.date = :date")
     List<Attendance> findByDate(@Param("date") LocalDate date);
 
+    // [userId, attendance] pairs for the day (warms AttendanceDayCache)
+    @Query("SELECT a.user.id, a FROM Attendance a WHERE a.date = :date")
+    List<Object[]> findByDateWithUserId(@Param("date") LocalDate date);
+
     // FIXED → Present days count (uppercase)
     @Query("SELECT COUNT(a) FROM Attendance a WHERE a.user.id = :userId AND a.status = 'PRESENT'")
     Integer findByPresentDays(@Param("userId") Integer userId);
@@ -35,17 +43,45 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Integer>
     LEFT JOIN users u ON a.user_id = u.id
     WHERE
         (:search IS NULL OR :search = '' OR
-            LOWER(COALESCE(u.full_name, '')) LIKE LOWER(CONCAT('%', :search, '%'))
-            OR LOWER(COALESCE(a.empid, '')) LIKE LOWER(CONCAT('%', :search, '%'))
+            LOWER(u.full_name) LIKE LOWER(CONCAT('%', :search, '%'))
+            OR LOWER(u.empid) LIKE LOWER(CONCAT('%', :search, '%'))
         )
     AND (:date IS NULL OR a.date = TO_DATE(:date, 'YYYY-MM-DD'))
-    ORDER BY a.date DESC
+    ORDER BY a.date DESC, a.id DESC
     """,
             nativeQuery = true)
     List<Attendance> findAllFiltered(
             @Param("search") String search,
-            @Param("date") String date
+            @Param("date") String date,
+            Pageable limit
     );
+
+    // HR GRID → Keyset page over (date DESC, id DESC).
+    // :pattern is already lower-cased, '!'-escaped and wrapped in %...%, so LOWER(col) LIKE hits the pg_trgm indexes.
+    @Query("SELECT new com.example.employee_service_mama.dto.AttendanceGridRowDTO(" +
+            "a.id, u.id, a.empid, u.fullName, a.date, a.loginTime, a.logoutTime, a.status, a.remarks) " +
+            "FROM Attendance a JOIN a.user u " +
+            "WHERE (:pattern IS NULL " +
+            "       OR LOWER(u.fullName) LIKE :pattern ESCAPE '!' " +
+            "       OR LOWER(u.empid) LIKE :pattern ESCAPE '!') " +
+            "AND a.date BETWEEN :from AND :to " +
+            "AND (a.date < :beforeDate OR (a.date = :beforeDate AND a.id < :beforeId)) " +
+            "ORDER BY a.date DESC, a.id DESC")
+    List<AttendanceGridRowDTO> searchGrid(@Param("pattern") String pattern,
+                                          @Param("from") LocalDate from,
+                                          @Param("to") LocalDate to,
+                                          @Param("beforeDate") LocalDate beforeDate,
+                                          @Param("beforeId") Integer beforeId,
+                                          Pageable limit);
+
+    @Query("SELECT COUNT(a) FROM Attendance a JOIN a.user u " +
+            "WHERE (:pattern IS NULL " +
+            "       OR LOWER(u.fullName) LIKE :pattern ESCAPE '!' " +
+            "       OR LOWER(u.empid) LIKE :pattern ESCAPE '!') " +
+            "AND a.date BETWEEN :from AND :to")
+    long countGrid(@Param("pattern") String pattern,
+                   @Param("from") LocalDate from,
+                   @Param("to") LocalDate to);
     // ⭐ NEW LOGIC MERGED BELOW ⭐
 
 
@@ -53,6 +89,31 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Integer>
     @Query("SELECT a FROM Attendance a WHERE a.user.id = :userId ORDER BY a.date DESC")
     List<Attendance> findAttendanceHistory(@Param("userId") Integer userId);
 
+    // HISTORY PAGE → First keyset page in [from, to], newest first (Pageable only carries the LIMIT)
+    @Query("SELECT new com.example.employee_service_mama.dto.AttendanceHistoryDTO(" +
+            "a.id, a.date, a.loginTime, a.logoutTime, a.status, a.remarks) " +
+            "FROM Attendance a " +
+            "WHERE a.user.id = :userId AND a.date BETWEEN :from AND :to " +
+            "ORDER BY a.date DESC, a.id DESC")
+    List<AttendanceHistoryDTO> findHistoryPage(@Param("userId") Integer userId,
+                                               @Param("from") LocalDate from,
+                                               @Param("to") LocalDate to,
+                                               Pageable limit);
+
+    // HISTORY PAGE → Next keyset page strictly after the (beforeDate, beforeId) cursor
+    @Query("SELECT new com.example.employee_service_mama.dto.AttendanceHistoryDTO(" +
+            "a.id, a.date, a.loginTime, a.logoutTime, a.status, a.remarks) " +
+            "FROM Attendance a " +
+            "WHERE a.user.id = :userId AND a.date BETWEEN :from AND :to " +
+            "AND (a.date < :beforeDate OR (a.date = :beforeDate AND a.id < :beforeId)) " +
+            "ORDER BY a.date DESC, a.id DESC")
+    List<AttendanceHistoryDTO> findHistoryPageBefore(@Param("userId") Integer userId,
+                                                     @Param("from") LocalDate from,
+                                                     @Param("to") LocalDate to,
+                                                     @Param("beforeDate") LocalDate beforeDate,
+                                                     @Param("beforeId") Integer beforeId,
+                                                     Pageable limit);
+
     // NEW → Absent Days
     @Query("SELECT COUNT(a) FROM Attendance a WHERE a.status = 'ABSENT' AND a.user.id = :userId")
     Integer findByAbsentDays(@Param("userId") Integer userId);
@@ -95,4 +156,201 @@ public interface AttendanceRepository extends JpaRepository<Attendance, Integer>
     @Query("SELECT COUNT(a) FROM Attendance a WHERE a.date = :today AND a.status = 'PRESENT'")
     long countPresentToday(@Param("today") LocalDate today);
 
+    // LIVE STATS → [status, rows, rows with login, rows with logout] for the date
+    @Query("SELECT a.status, COUNT(a), COUNT(a.loginTime), COUNT(a.logoutTime) " +
+            "FROM Attendance a WHERE a.date = :date GROUP BY a.status")
+    List<Object[]> countByStatusForDate(@Param("date") LocalDate date);
+
+    // LOGIN → Insert today's row unless (user_id, date) already exists.
+    // Returns [id, empid] of the new row, or nothing when no row was inserted (row exists / unknown user).
+    @Transactional
+    @Query(value = """
+    INSERT INTO attendance (user_id, empid, date, login_time, status, remarks, created_at)
+    SELECT u.id, u.empid, :date, :loginTime, :status, :remarks, NOW()
+    FROM users u
+    WHERE u.id = :userId
+    ON CONFLICT (user_id, date) DO NOTHING
+    RETURNING id, empid
+    """,
+            nativeQuery = true)
+    List<Object[]> insertLoginIfAbsent(@Param("userId") Integer userId,
+                                @Param("date") LocalDate date,
+                                @Param("loginTime") LocalTime loginTime,
+                                @Param("status") String status,
+                                @Param("remarks") String remarks);
+
+    // LOGOUT → Close the row only if still open; 1 = closed, 0 = already closed
+    @Transactional
+    @Modifying
+    @Query("UPDATE Attendance a SET a.logoutTime = :logoutTime, a.status = :status, " +
+            "a.remarks = :remarks, a.updatedAt = :updatedAt " +
+            "WHERE a.user.id = :userId AND a.date = :date AND a.logoutTime IS NULL")
+    int closeOpenAttendance(@Param("userId") Integer userId,
+                            @Param("date") LocalDate date,
+                            @Param("logoutTime") LocalTime logoutTime,
+                            @Param("status") String status,
+                            @Param("remarks") String remarks,
+                            @Param("updatedAt") OffsetDateTime updatedAt);
+
+    // BULK → Insert ABSENT for every user with no row for the date (skips approved leave).
+    // Returns the user ids that were marked.
+    @Transactional
+    @Query(value = """
+    INSERT INTO attendance (user_id, empid, date, status, remarks, created_at)
+    SELECT u.id, u.empid, :date, 'ABSENT', :remarks, NOW()
+    FROM users u
+    WHERE NOT EXISTS (
+            SELECT 1 FROM attendance a
+            WHERE a.user_id = u.id AND a.date = :date
+        )
+      AND NOT EXISTS (
+            SELECT 1 FROM leave_request lr
+            WHERE lr.user_id = u.id
+              AND lr.status = 'approved'
+              AND :date BETWEEN lr.start_date AND lr.end_date
+        )
+    ON CONFLICT (user_id, date) DO NOTHING
+    RETURNING user_id
+    """,
+            nativeQuery = true)
+    List<Integer> insertMissingAbsent(@Param("date") LocalDate date,
+                                      @Param("remarks") String remarks);
+
+    // BULK → Close every open row for the date; ABSENT / HALF_DAY decided in SQL.
+    // Returns the user ids that were logged out.
+    @Transactional
+    @Query(value = """
+    UPDATE attendance a
+    SET logout_time = :logoutTime,
+        status = CASE
+                    WHEN EXTRACT(EPOCH FROM (CAST(:logoutTime AS time) - a.login_time)) < :minHours * 3600
+                    THEN 'ABSENT' ELSE 'HALF_DAY'
+                 END,
+        remarks = CASE
+                    WHEN EXTRACT(EPOCH FROM (CAST(:logoutTime AS time) - a.login_time)) < :minHours * 3600
+                    THEN :absentRemarks ELSE :halfDayRemarks
+                  END,
+        updated_at = NOW()
+    WHERE a.date = :date
+      AND a.login_time IS NOT NULL
+      AND a.logout_time IS NULL
+    RETURNING a.user_id
+    """,
+            nativeQuery = true)
+    List<Integer> bulkAutoLogout(@Param("date") LocalDate date,
+                                 @Param("logoutTime") LocalTime logoutTime,
+                                 @Param("minHours") int minHours,
+                                 @Param("absentRemarks") String absentRemarks,
+                                 @Param("halfDayRemarks") String halfDayRemarks);
+
+    // CLEANUP → Weekend rows are synthesized at read time; drop the old materialized ones
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Attendance a WHERE a.status = 'WEEKEND' AND a.remarks = 'Auto Weekend Marked'")
+    int deleteMaterializedWeekendRows();
+
+    @Query("SELECT a.user.id FROM Attendance a WHERE a.date = :date")
+    List<Integer> findUserIdsByDate(@Param("date") LocalDate date);
+
+    // SANDWICH → Existing Sat / Sun rows of users ABSENT on :date become ABSENT;
+    // the previous status / remarks are kept so the row can be restored
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE attendance w
+    SET sandwich_prev_status = w.status,
+        sandwich_prev_remarks = w.remarks,
+        status = 'ABSENT', remarks = :remarks, updated_at = NOW()
+    FROM attendance src
+    WHERE src.user_id IN (:userIds)
+      AND src.date = :date
+      AND src.status = 'ABSENT'
+      AND w.user_id = src.user_id
+      AND w.date IN (:saturday, :sunday)
+      AND w.remarks IS DISTINCT FROM :remarks
+    """,
+            nativeQuery = true)
+    int markSandwichWeekendAbsent(@Param("userIds") List<Integer> userIds,
+                                  @Param("date") LocalDate date,
+                                  @Param("saturday") LocalDate saturday,
+                                  @Param("sunday") LocalDate sunday,
+                                  @Param("remarks") String remarks);
+
+    // SANDWICH → Missing Sat / Sun rows of users ABSENT on :date are inserted as ABSENT
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO attendance (user_id, empid, date, status, remarks, created_at)
+    SELECT src.user_id, src.empid, d.day, 'ABSENT', :remarks, NOW()
+    FROM attendance src
+    CROSS JOIN (VALUES (CAST(:saturday AS date)), (CAST(:sunday AS date))) AS d(day)
+    WHERE src.user_id IN (:userIds)
+      AND src.date = :date
+      AND src.status = 'ABSENT'
+      AND NOT EXISTS (
+            SELECT 1 FROM attendance w
+            WHERE w.user_id = src.user_id AND w.date = d.day
+        )
+    ON CONFLICT (user_id, date) DO NOTHING
+    """,
+            nativeQuery = true)
+    int insertSandwichWeekendAbsent(@Param("userIds") List<Integer> userIds,
+                                    @Param("date") LocalDate date,
+                                    @Param("saturday") LocalDate saturday,
+                                    @Param("sunday") LocalDate sunday,
+                                    @Param("remarks") String remarks);
+
+    // SANDWICH REVERT → Policy-inserted Sat / Sun rows whose Friday and Monday are both no longer ABSENT
+    @Transactional
+    @Modifying
+    @Query(value = """
+    DELETE FROM attendance w
+    WHERE w.user_id IN (:userIds)
+      AND w.date IN (:saturday, :sunday)
+      AND w.remarks = :remarks
+      AND w.sandwich_prev_status IS NULL
+      AND NOT EXISTS (
+            SELECT 1 FROM attendance s
+            WHERE s.user_id = w.user_id
+              AND s.date IN (:friday, :monday)
+              AND s.status = 'ABSENT'
+        )
+    """,
+            nativeQuery = true)
+    int deleteStaleSandwichRows(@Param("userIds") List<Integer> userIds,
+                                @Param("friday") LocalDate friday,
+                                @Param("saturday") LocalDate saturday,
+                                @Param("sunday") LocalDate sunday,
+                                @Param("monday") LocalDate monday,
+                                @Param("remarks") String remarks);
+
+    // SANDWICH REVERT → Pre-existing Sat / Sun rows get their previous status / remarks back
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE attendance w
+    SET status = w.sandwich_prev_status,
+        remarks = w.sandwich_prev_remarks,
+        sandwich_prev_status = NULL,
+        sandwich_prev_remarks = NULL,
+        updated_at = NOW()
+    WHERE w.user_id IN (:userIds)
+      AND w.date IN (:saturday, :sunday)
+      AND w.remarks = :remarks
+      AND w.sandwich_prev_status IS NOT NULL
+      AND NOT EXISTS (
+            SELECT 1 FROM attendance s
+            WHERE s.user_id = w.user_id
+              AND s.date IN (:friday, :monday)
+              AND s.status = 'ABSENT'
+        )
+    """,
+            nativeQuery = true)
+    int restoreStaleSandwichRows(@Param("userIds") List<Integer> userIds,
+                                 @Param("friday") LocalDate friday,
+                                 @Param("saturday") LocalDate saturday,
+                                 @Param("sunday") LocalDate sunday,
+                                 @Param("monday") LocalDate monday,
+                                 @Param("remarks") String remarks);
+
 }
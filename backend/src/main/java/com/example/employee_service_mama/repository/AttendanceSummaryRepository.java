@@ -0,0 +1,97 @@
+package com.example.employee_service_mama.repository;
+
+import com.example.employee_service_mama.model.AttendanceSummary;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+@Repository
+public interface AttendanceSummaryRepository extends JpaRepository<AttendanceSummary, Integer> {
+
+    List<AttendanceSummary> findByUserId(Integer userId);
+
+    List<AttendanceSummary> findByUserIdAndYear(Integer userId, Integer year);
+
+    List<AttendanceSummary> findByUserIdAndYearAndMonth(Integer userId, Integer year, Integer month);
+
+    // Re-aggregate the counters of the given users for every month in [from, to).
+    // Months left with no attendance rows are removed by deleteEmptyMonths.
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO attendance_summary
+        (user_id, year, month, present_days, absent_days, half_days, late_days, updated_at)
+    SELECT a.user_id,
+           CAST(EXTRACT(YEAR FROM a.date) AS integer),
+           CAST(EXTRACT(MONTH FROM a.date) AS integer),
+           COUNT(*) FILTER (WHERE a.status = 'PRESENT'),
+           COUNT(*) FILTER (WHERE a.status = 'ABSENT'),
+           COUNT(*) FILTER (WHERE a.status = 'HALF_DAY'),
+           COUNT(*) FILTER (WHERE a.login_time > :lateTime),
+           NOW()
+    FROM attendance a
+    WHERE a.user_id IN (:userIds)
+      AND a.date >= :from
+      AND a.date < :to
+    GROUP BY a.user_id, CAST(EXTRACT(YEAR FROM a.date) AS integer), CAST(EXTRACT(MONTH FROM a.date) AS integer)
+    ON CONFLICT (user_id, year, month) DO UPDATE SET
+        present_days = EXCLUDED.present_days,
+        absent_days  = EXCLUDED.absent_days,
+        half_days    = EXCLUDED.half_days,
+        late_days    = EXCLUDED.late_days,
+        updated_at   = EXCLUDED.updated_at
+    """,
+            nativeQuery = true)
+    int refresh(@Param("userIds") List<Integer> userIds,
+                @Param("from") LocalDate from,
+                @Param("to") LocalDate to,
+                @Param("lateTime") LocalTime lateTime);
+
+    // Drop summary rows of the given users in [from, to) whose month no longer has attendance
+    @Transactional
+    @Modifying
+    @Query(value = """
+    DELETE FROM attendance_summary s
+    WHERE s.user_id IN (:userIds)
+      AND MAKE_DATE(s.year, s.month, 1) >= :from
+      AND MAKE_DATE(s.year, s.month, 1) < :to
+      AND NOT EXISTS (
+            SELECT 1 FROM attendance a
+            WHERE a.user_id = s.user_id
+              AND a.date >= MAKE_DATE(s.year, s.month, 1)
+              AND a.date < MAKE_DATE(s.year, s.month, 1) + INTERVAL '1 month'
+        )
+    """,
+            nativeQuery = true)
+    int deleteEmptyMonths(@Param("userIds") List<Integer> userIds,
+                          @Param("from") LocalDate from,
+                          @Param("to") LocalDate to);
+
+    // One-time backfill of every user-month from the attendance table
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO attendance_summary
+        (user_id, year, month, present_days, absent_days, half_days, late_days, updated_at)
+    SELECT a.user_id,
+           CAST(EXTRACT(YEAR FROM a.date) AS integer),
+           CAST(EXTRACT(MONTH FROM a.date) AS integer),
+           COUNT(*) FILTER (WHERE a.status = 'PRESENT'),
+           COUNT(*) FILTER (WHERE a.status = 'ABSENT'),
+           COUNT(*) FILTER (WHERE a.status = 'HALF_DAY'),
+           COUNT(*) FILTER (WHERE a.login_time > :lateTime),
+           NOW()
+    FROM attendance a
+    GROUP BY a.user_id, CAST(EXTRACT(YEAR FROM a.date) AS integer), CAST(EXTRACT(MONTH FROM a.date) AS integer)
+    ON CONFLICT (user_id, year, month) DO NOTHING
+    """,
+            nativeQuery = true)
+    int rebuildAll(@Param("lateTime") LocalTime lateTime);
+}
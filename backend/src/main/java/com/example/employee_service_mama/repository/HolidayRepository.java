@@ -3,7 +3,12 @@ package com.example.employee_service_mama.repository;
 import com.example.employee_service_mama.model.Holiday;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.UUID;
+import java.time.LocalDate;
+import java.util.List;
 
-interface HolidayRepository extends JpaRepository<Holiday, Integer> {
+public interface HolidayRepository extends JpaRepository<Holiday, Integer> {
+
+    List<Holiday> findByDateBetween(LocalDate from, LocalDate to);
+
+    boolean existsByDate(LocalDate date);
 }
@@ -30,4 +30,19 @@ public interface LeaveRequestsRepository extends JpaRepository<LeaveRequest, Int
             "AND l.status = 'approved' " +
             "AND :date BETWEEN l.startDate AND l.endDate")
     boolean existsApprovedLeaveForDate(Integer userId, LocalDate date);
+
+    // [userId, startDate, endDate] of approved leaves overlapping [from, to]
+    @Query("SELECT l.user.id, l.startDate, l.endDate FROM LeaveRequest l " +
+            "WHERE l.status = 'approved' " +
+            "AND l.startDate <= :to AND l.endDate >= :from")
+    List<Object[]> findApprovedRanges(@Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    // [startDate, endDate] of one user's approved leaves overlapping [from, to]
+    @Query("SELECT l.startDate, l.endDate FROM LeaveRequest l " +
+            "WHERE l.user.id = :userId AND l.status = 'approved' " +
+            "AND l.startDate <= :to AND l.endDate >= :from")
+    List<Object[]> findApprovedRangesForUser(@Param("userId") Integer userId,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
 }
@@ -0,0 +1,108 @@
+package com.example.employee_service_mama.repository;
+
+import com.example.employee_service_mama.model.SalaryAccrual;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SalaryAccrualRepository extends JpaRepository<SalaryAccrual, Long> {
+
+    List<SalaryAccrual> findByUserIdAndDateBetweenOrderByDateAsc(Integer userId, LocalDate from, LocalDate to);
+
+    // Record the day's accrual per user and credit the wallet with the difference only.
+    // PRESENT / LEAVE = daily rate, HALF_DAY = half, anything else (or no row any more) = 0.
+    //  first run      → rows inserted, full amount credited
+    //  rerun          → nothing changed, nothing credited
+    //  status changed → row updated, old → new difference credited (negative reverses)
+    // A corrected row keeps its original salary_id, so the credit lands on the cycle the day belongs to.
+    // Returns the wallets credited.
+    @Transactional
+    @Modifying
+    @Query(value = """
+    WITH src AS (
+        (SELECT DISTINCT ON (a.user_id)
+                a.user_id, w.id AS salary_id, a.status,
+                CASE a.status
+                    WHEN 'PRESENT'  THEN w.daily_rate
+                    WHEN 'LEAVE'    THEN w.daily_rate
+                    WHEN 'HALF_DAY' THEN w.daily_rate / 2
+                    ELSE 0
+                END AS amount
+         FROM attendance a
+         JOIN salary w ON w.user_id = a.user_id AND w.cycle_end IS NULL
+         WHERE a.date = :date
+         ORDER BY a.user_id, w.id)
+        UNION ALL
+        SELECT l.user_id, l.salary_id, 'NONE', 0
+        FROM salary_accrual l
+        WHERE l.accrual_date = :date
+          AND NOT EXISTS (
+                SELECT 1 FROM attendance a
+                WHERE a.user_id = l.user_id AND a.date = :date
+            )
+    ),
+    prev AS (
+        SELECT user_id, amount
+        FROM salary_accrual
+        WHERE accrual_date = :date
+    ),
+    upserted AS (
+        INSERT INTO salary_accrual (user_id, salary_id, accrual_date, status, amount, created_at, updated_at)
+        SELECT s.user_id, s.salary_id, :date, s.status, s.amount, NOW(), NOW()
+        FROM src s
+        WHERE s.amount <> 0
+           OR EXISTS (SELECT 1 FROM prev p WHERE p.user_id = s.user_id)
+        ON CONFLICT (user_id, accrual_date) DO UPDATE SET
+            status = EXCLUDED.status,
+            amount = EXCLUDED.amount,
+            updated_at = EXCLUDED.updated_at
+        WHERE salary_accrual.amount IS DISTINCT FROM EXCLUDED.amount
+           OR salary_accrual.status IS DISTINCT FROM EXCLUDED.status
+        RETURNING user_id, salary_id, amount
+    )
+    UPDATE salary w
+    SET current_month_earned = w.current_month_earned + t.delta,
+        last_updated = NOW()
+    FROM (
+        SELECT u.salary_id, SUM(u.amount - COALESCE(p.amount, 0)) AS delta
+        FROM upserted u
+        LEFT JOIN prev p ON p.user_id = u.user_id
+        GROUP BY u.salary_id
+    ) t
+    WHERE w.id = t.salary_id
+      AND t.delta <> 0
+    """,
+            nativeQuery = true)
+    int upsertAndCredit(@Param("date") LocalDate date);
+
+    @Query("SELECT DISTINCT a.date FROM SalaryAccrual a WHERE a.date IN (:dates)")
+    List<LocalDate> findAccruedDates(@Param("dates") Collection<LocalDate> dates);
+
+    // Re-derive current_month_earned from the ledger for active cycles fully covered by it
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE salary w
+    SET current_month_earned = l.total,
+        last_updated = NOW()
+    FROM (
+        SELECT salary_id, SUM(amount) AS total
+        FROM salary_accrual
+        GROUP BY salary_id
+    ) l
+    WHERE w.id = l.salary_id
+      AND w.cycle_end IS NULL
+      AND w.cycle_start >= (SELECT MIN(accrual_date) FROM salary_accrual)
+      AND w.current_month_earned <> l.total
+    """,
+            nativeQuery = true)
+    int reconcileActiveWallets();
+}
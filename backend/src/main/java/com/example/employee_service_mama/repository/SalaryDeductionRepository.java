@@ -0,0 +1,39 @@
+package com.example.employee_service_mama.repository;
+
+import com.example.employee_service_mama.model.SalaryDeduction;
+import jakarta.transaction.Transactional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface SalaryDeductionRepository extends JpaRepository<SalaryDeduction, Long> {
+
+    List<SalaryDeduction> findBySalaryIdOrderByIdDesc(Integer salaryId);
+
+    // Increment the active cycle's deduction in the database and log it, in one statement
+    // (no read-modify-write, so concurrent HR calls cannot lose updates). Returns 0 if no active cycle.
+    @Transactional
+    @Modifying
+    @Query(value = """
+    WITH target AS (
+        UPDATE salary
+        SET deduction = COALESCE(deduction, 0) + :amount,
+            last_updated = NOW()
+        WHERE empid = :empid
+          AND cycle_end IS NULL
+        RETURNING id, user_id, empid
+    )
+    INSERT INTO salary_deduction (salary_id, user_id, empid, amount, reason, created_at)
+    SELECT id, user_id, empid, :amount, :reason, NOW()
+    FROM target
+    """,
+            nativeQuery = true)
+    int applyToActiveCycle(@Param("empid") String empid,
+                           @Param("amount") Double amount,
+                           @Param("reason") String reason);
+}
@@ -1,40 +1,35 @@
 // src/main/java/com/example/employee_service_mama/repository/WalletRepository.java
 package com.example.employee_service_mama.repository;
 
+import com.example.employee_service_mama.dto.PayrollRowDTO;
 import com.example.employee_service_mama.dto.WalletResponse;
 import com.example.employee_service_mama.model.Wallet;
+import jakarta.transaction.Transactional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface WalletRepository extends JpaRepository<Wallet, Integer> {
 
-    @Query("SELECT w.monthlySalary FROM Wallet w WHERE w.user.id = :userId")
+    // Single-wallet reads → the active cycle (one per user, uk_salary_active_user)
+    @Query("SELECT w.monthlySalary FROM Wallet w WHERE w.user.id = :userId AND w.cycleEnd IS NULL")
     Float monthsalary(@Param("userId") Integer userId);
 
-    @Query("SELECT w.dailyRate FROM Wallet w WHERE w.user.id = :userId")
+    @Query("SELECT w.dailyRate FROM Wallet w WHERE w.user.id = :userId AND w.cycleEnd IS NULL")
     Double dailyrate(@Param("userId") Integer userId);
 
-    @Query("SELECT SUM(w.monthlySalary) FROM Wallet w")
-    Double totalmonthsalary();
-
-    @Query("SELECT SUM(w.currentMonthEarned) FROM Wallet w")
-    Double currentMonthEarned();
-
-    @Query("SELECT SUM(w.deduction) FROM Wallet w")
-    Double totaldeduction();
-
-    Optional<Wallet> findByEmpid(String empid);
-
-    @Query("SELECT w FROM Wallet w WHERE w.user.id = :userId")
+    @Query("SELECT w FROM Wallet w WHERE w.user.id = :userId AND w.cycleEnd IS NULL")
     Optional<Wallet> findByUserId(@Param("userId") Integer userId);
 
-    // u.role will be mapped to 'department' in WalletResponse
+    // Active cycles only (one row per employee); u.role will be mapped to 'department' in WalletResponse
     @Query("""
            SELECT new com.example.employee_service_mama.dto.WalletResponse(
                u.id,
@@ -48,12 +43,115 @@ public interface WalletRepository extends JpaRepository<Wallet, Integer> {
            )
            FROM Wallet w
            JOIN w.user u
+           WHERE w.cycleEnd IS NULL
            """)
     List<WalletResponse> findAllAsResponse();
 
+    // PAYROLL PAGE → Active cycles, keyset on wallet id (Pageable only carries the LIMIT)
+    @Query("""
+           SELECT new com.example.employee_service_mama.dto.PayrollRowDTO(
+               w.id, u.id, w.empid, u.fullName, u.role,
+               w.monthlySalary, w.dailyRate, w.currentMonthEarned, COALESCE(w.deduction, 0),
+               w.cycleStart, w.cycleEnd
+           )
+           FROM Wallet w
+           JOIN w.user u
+           WHERE w.cycleEnd IS NULL AND w.id > :afterId
+           ORDER BY w.id
+           """)
+    List<PayrollRowDTO> findActivePayrollPage(@Param("afterId") Integer afterId, Pageable limit);
+
+    // PAYROLL PAGE → One past (or current) cycle by its start date
+    @Query("""
+           SELECT new com.example.employee_service_mama.dto.PayrollRowDTO(
+               w.id, u.id, w.empid, u.fullName, u.role,
+               w.monthlySalary, w.dailyRate, w.currentMonthEarned, COALESCE(w.deduction, 0),
+               w.cycleStart, w.cycleEnd
+           )
+           FROM Wallet w
+           JOIN w.user u
+           WHERE w.cycleStart = :cycleStart AND w.id > :afterId
+           ORDER BY w.id
+           """)
+    List<PayrollRowDTO> findCyclePayrollPage(@Param("cycleStart") LocalDate cycleStart,
+                                             @Param("afterId") Integer afterId,
+                                             Pageable limit);
+
     @Query("SELECT w FROM Wallet w WHERE w.user.id = :userId AND w.cycleEnd IS NULL")
     Optional<Wallet> findActiveWalletForUser(@Param("userId") Integer userId);
 
-    @Query("SELECT w.deduction FROM Wallet w WHERE w.user.id = :userId")
+    @Query("SELECT w.deduction FROM Wallet w WHERE w.user.id = :userId AND w.cycleEnd IS NULL")
     Double findDeductionByUserId(Integer userId);
+
+    // Active-cycle totals (served by the partial index idx_salary_active_cycle):
+    // employees, cycle start, monthly salary, earned, deduction
+    @Query(value = """
+    SELECT COUNT(*),
+           MIN(cycle_start),
+           COALESCE(SUM(monthly_salary), 0),
+           COALESCE(SUM(current_month_earned), 0),
+           COALESCE(SUM(deduction), 0)
+    FROM salary
+    WHERE cycle_end IS NULL
+    """,
+            nativeQuery = true)
+    List<Object[]> activeCycleTotals();
+
+    // ACCRUAL → Open a cycle for users with attendance on :date but no active wallet
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO salary (user_id, empid, monthly_salary, daily_rate, current_month_earned, deduction, cycle_start, last_updated)
+    SELECT u.id, u.empid,
+           COALESCE(u.base_salary, 0),
+           COALESCE(u.base_salary, 0) / 30.0,
+           0, 0, :cycleStart, NOW()
+    FROM users u
+    WHERE EXISTS (
+            SELECT 1 FROM attendance a
+            WHERE a.user_id = u.id AND a.date = :date
+        )
+      AND NOT EXISTS (
+            SELECT 1 FROM salary w
+            WHERE w.user_id = u.id AND w.cycle_end IS NULL
+        )
+    ON CONFLICT DO NOTHING
+    """,
+            nativeQuery = true)
+    int insertMissingActiveWallets(@Param("date") LocalDate date,
+                                   @Param("cycleStart") LocalDate cycleStart);
+
+    // ROLLOVER → Close every cycle that started on or before :closeDate (cycles opened by a
+    // previous run start the next day, so a second run closes nothing)
+    @Transactional
+    @Modifying
+    @Query(value = """
+    UPDATE salary
+    SET cycle_end = :closeDate,
+        last_updated = NOW()
+    WHERE cycle_end IS NULL
+      AND (cycle_start IS NULL OR cycle_start <= :closeDate)
+    """,
+            nativeQuery = true)
+    int closeActiveCycles(@Param("closeDate") LocalDate closeDate);
+
+    // ROLLOVER → Open the next cycle for every wallet closed on :closeDate, carrying the rates over
+    @Transactional
+    @Modifying
+    @Query(value = """
+    INSERT INTO salary (user_id, empid, monthly_salary, daily_rate, current_month_earned, deduction, cycle_start, last_updated)
+    SELECT DISTINCT ON (s.user_id)
+           s.user_id, s.empid, s.monthly_salary, s.daily_rate, 0, 0, :nextStart, NOW()
+    FROM salary s
+    WHERE s.cycle_end = :closeDate
+      AND NOT EXISTS (
+            SELECT 1 FROM salary n
+            WHERE n.user_id = s.user_id AND n.cycle_end IS NULL
+        )
+    ORDER BY s.user_id, s.id DESC
+    ON CONFLICT DO NOTHING
+    """,
+            nativeQuery = true)
+    int openNextCycles(@Param("closeDate") LocalDate closeDate,
+                       @Param("nextStart") LocalDate nextStart);
 }
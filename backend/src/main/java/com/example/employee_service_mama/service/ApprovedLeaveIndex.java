@@ -0,0 +1,150 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.model.LeaveRequest;
+import com.example.employee_service_mama.repository.LeaveRequestsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// In-memory index of approved leaves: one BitSet of user ids per date over a rolling
+// window, so "on leave today?" and the on-leave-today count are lookups, not queries.
+// Each BitSet is replaced (copy-on-write), never mutated after publication.
+// Dates outside the window fall back to the repository.
+@Service
+@RequiredArgsConstructor
+public class ApprovedLeaveIndex {
+
+    private static final int DAYS_BACK = 31;
+    private static final int DAYS_AHEAD = 180;
+
+    private final LeaveRequestsRepository leaveRepository;
+
+    private volatile Map<LocalDate, BitSet> byDate = new ConcurrentHashMap<>();
+    private volatile LocalDate windowStart;
+    private volatile LocalDate windowEnd;
+
+    @Scheduled(cron = "0 0 0 * * *") // Midnight — roll the window forward
+    public synchronized void rebuild() {
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(DAYS_BACK);
+        LocalDate to = today.plusDays(DAYS_AHEAD);
+
+        Map<LocalDate, BitSet> fresh = new ConcurrentHashMap<>();
+        for (Object[] row : leaveRepository.findApprovedRanges(from, to)) {
+            mark(fresh, (Integer) row[0], (LocalDate) row[1], (LocalDate) row[2], from, to);
+        }
+
+        byDate = fresh;
+        windowStart = from;
+        windowEnd = to;
+    }
+
+    public boolean isOnLeave(Integer userId, LocalDate date) {
+        if (!inWindow(date)) return leaveRepository.existsApprovedLeaveForDate(userId, date);
+
+        BitSet users = byDate.get(date);
+        return users != null && users.get(userId);
+    }
+
+    // Distinct users on approved leave for the date
+    public long countOnLeave(LocalDate date) {
+        if (!inWindow(date)) return leaveRepository.countLeaveToday(date);
+
+        BitSet users = byDate.get(date);
+        return users == null ? 0 : users.cardinality();
+    }
+
+    public void onApproved(LeaveRequest leave) {
+        onApproved(leave.getUser().getId(), leave.getStartDate(), leave.getEndDate());
+    }
+
+    public synchronized void onApproved(Integer userId, LocalDate start, LocalDate end) {
+        ensureWindow();
+        Map<LocalDate, BitSet> updated = new HashMap<>();
+        mark(updated, userId, start, end, windowStart, windowEnd);
+        updated.forEach((date, bits) -> {
+            BitSet merged = copy(byDate.get(date));
+            merged.or(bits);
+            byDate.put(date, merged);
+        });
+    }
+
+    // Rejection (or revocation): clear the user's range, then re-apply their other approved leaves
+    public void onRejected(LeaveRequest leave) {
+        onRejected(leave.getUser().getId(), leave.getStartDate(), leave.getEndDate());
+    }
+
+    public synchronized void onRejected(Integer userId, LocalDate start, LocalDate end) {
+        ensureWindow();
+        LocalDate from = max(start, windowStart);
+        LocalDate to = min(end, windowEnd);
+        if (from.isAfter(to)) return;
+
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            BitSet current = byDate.get(d);
+            if (current == null || !current.get(userId)) continue;
+            BitSet cleared = copy(current);
+            cleared.clear(userId);
+            byDate.put(d, cleared);
+        }
+
+        List<Object[]> others = leaveRepository.findApprovedRangesForUser(userId, from, to);
+        Map<LocalDate, BitSet> restore = new HashMap<>();
+        for (Object[] row : others) {
+            mark(restore, userId, (LocalDate) row[0], (LocalDate) row[1], from, to);
+        }
+        restore.forEach((date, bits) -> {
+            BitSet merged = copy(byDate.get(date));
+            merged.or(bits);
+            byDate.put(date, merged);
+        });
+    }
+
+    // Re-read every approved leave of the user inside the window (leave changed elsewhere)
+    public synchronized void refreshUser(Integer userId) {
+        ensureWindow();
+        onRejected(userId, windowStart, windowEnd);
+    }
+
+    private boolean inWindow(LocalDate date) {
+        ensureWindow();
+        return !date.isBefore(windowStart) && !date.isAfter(windowEnd);
+    }
+
+    private void ensureWindow() {
+        LocalDate today = LocalDate.now();
+        if (windowStart == null || !windowStart.equals(today.minusDays(DAYS_BACK))) {
+            synchronized (this) {
+                if (windowStart == null || !windowStart.equals(today.minusDays(DAYS_BACK))) rebuild();
+            }
+        }
+    }
+
+    private static void mark(Map<LocalDate, BitSet> target, Integer userId,
+                             LocalDate start, LocalDate end, LocalDate from, LocalDate to) {
+        LocalDate d = max(start, from);
+        LocalDate last = min(end, to);
+        for (; !d.isAfter(last); d = d.plusDays(1)) {
+            target.computeIfAbsent(d, k -> new BitSet()).set(userId);
+        }
+    }
+
+    private static BitSet copy(BitSet bits) {
+        return bits == null ? new BitSet() : (BitSet) bits.clone();
+    }
+
+    private static LocalDate max(LocalDate a, LocalDate b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
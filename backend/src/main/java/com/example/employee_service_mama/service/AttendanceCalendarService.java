@@ -0,0 +1,102 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.dto.AttendanceHistoryDTO;
+import com.example.employee_service_mama.model.Attendance;
+import com.example.employee_service_mama.model.Holiday;
+import com.example.employee_service_mama.repository.HolidayRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Weekend / holiday entries are not stored per employee; they are synthesized here at read time.
+// Only real exceptions (e.g. sandwich-policy ABSENT on a weekend) live in the attendance table.
+@Service
+@RequiredArgsConstructor
+public class AttendanceCalendarService {
+
+    private final HolidayRepository holidayRepository;
+
+    public boolean isWeekend(LocalDate date) {
+        DayOfWeek day = date.getDayOfWeek();
+        return day == DayOfWeek.SATURDAY || day == DayOfWeek.SUNDAY;
+    }
+
+    public boolean isHoliday(LocalDate date) {
+        return holidayRepository.existsByDate(date);
+    }
+
+    // History (date DESC) from the oldest stored row up to today
+    public List<Attendance> withCalendarDays(List<Attendance> history) {
+        if (history == null || history.isEmpty()) return history;
+
+        LocalDate oldest = history.get(history.size() - 1).getDate();
+        return withCalendarDays(history, oldest, LocalDate.now());
+    }
+
+    // Stored rows + virtual WEEKEND / HOLIDAY rows for every uncovered day in [from, to], date DESC
+    public List<Attendance> withCalendarDays(List<Attendance> stored, LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) return stored;
+
+        Set<LocalDate> covered = stored.stream()
+                .map(Attendance::getDate)
+                .collect(Collectors.toSet());
+
+        String empid = stored.isEmpty() ? null : stored.get(0).getEmpid();
+
+        List<Attendance> merged = new ArrayList<>(stored);
+        for (AttendanceHistoryDTO day : calendarDays(from, to, covered)) {
+            merged.add(virtualRow(empid, day.getDate(), day.getStatus(), day.getRemarks()));
+        }
+
+        merged.sort(Comparator.comparing(Attendance::getDate).reversed());
+        return merged;
+    }
+
+    // Same merge for the projection rows served by the paginated history API
+    public List<AttendanceHistoryDTO> withCalendarDaysDto(List<AttendanceHistoryDTO> stored, LocalDate from, LocalDate to) {
+        if (from == null || to == null || from.isAfter(to)) return stored;
+
+        Set<LocalDate> covered = stored.stream()
+                .map(AttendanceHistoryDTO::getDate)
+                .collect(Collectors.toSet());
+
+        List<AttendanceHistoryDTO> merged = new ArrayList<>(stored);
+        merged.addAll(calendarDays(from, to, covered));
+
+        // date DESC, stored rows (id) before virtual ones on the same day
+        merged.sort(Comparator.comparing(AttendanceHistoryDTO::getDate).reversed()
+                .thenComparing(AttendanceHistoryDTO::getId, Comparator.nullsLast(Comparator.reverseOrder())));
+        return merged;
+    }
+
+    // Virtual WEEKEND / HOLIDAY entries for the days in [from, to] that are not covered
+    private List<AttendanceHistoryDTO> calendarDays(LocalDate from, LocalDate to, Set<LocalDate> covered) {
+        Map<LocalDate, String> holidays = holidayRepository.findByDateBetween(from, to).stream()
+                .collect(Collectors.toMap(Holiday::getDate, Holiday::getName, (a, b) -> a));
+
+        List<AttendanceHistoryDTO> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            if (covered.contains(day)) continue;
+
+            if (holidays.containsKey(day)) {
+                days.add(new AttendanceHistoryDTO(null, day, null, null, "HOLIDAY", holidays.get(day)));
+            } else if (isWeekend(day)) {
+                days.add(new AttendanceHistoryDTO(null, day, null, null, "WEEKEND", "Auto Weekend Marked"));
+            }
+        }
+        return days;
+    }
+
+    private Attendance virtualRow(String empid, LocalDate date, String status, String remarks) {
+        return Attendance.builder()
+                .empid(empid)
+                .date(date)
+                .status(status)
+                .remarks(remarks)
+                .build();
+    }
+}
@@ -1,18 +1,24 @@
 package com.example.employee_service_mama.service;
 
-import com.example.employee_service_mama.model.Attendance;
+import com.example.employee_service_mama.dto.JobRunReport;
 import com.example.employee_service_mama.model.AttendanceCsvFile;
 import com.example.employee_service_mama.model.Users;
 import com.example.employee_service_mama.repository.AttendanceCsvFileRepository;
-import com.example.employee_service_mama.repository.AttendanceRepository;
 import com.example.employee_service_mama.repository.UserRepository;
+import com.example.employee_service_mama.util.SheetDates;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.time.*;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -22,16 +28,27 @@ public class AttendanceCsvFileService {
 
     private final AttendanceCsvFileRepository repo;
     private final UserRepository userRepo;
-    private final AttendanceRepository attendanceRepository; // used to update main attendance table
-
-    private final LocalTime LOGIN_START = LocalTime.of(9, 0);
-    private final LocalTime FULL_PRESENT_LIMIT = LocalTime.of(9, 5);
-    private final LocalTime AUTO_LOGOUT_TIME = LocalTime.of(18, 30);
-    private final int FULL_DAY_HOURS = 9;
-    private final int MIN_HOURS = 5;
+    private final AttendanceFinalizationService finalizationService; // updates main attendance table
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceFilterService filterService; // HR filter cache invalidation
+    private final AttendanceDailySummaryService dailySummaryService;
+    private final LiveAttendanceStats liveStats;
+
+    private static final int CSV_BATCH_SIZE = 1000;
+    private static final int CSV_MAX_REPORTED_ERRORS = 100;
+    private static final Set<String> CSV_STATUSES = Set.of(
+            "PRESENT", "ABSENT", "LEAVE", "LATE", "HALF_DAY", "HALF-DAY", "HALFDAY");
+    // Duplicate empid for the date → 0 rows: uk_attendance_records_date_empid rejects it, also against
+    // rows of a concurrent upload of the same sheet (earlier rows of the same batch count too)
+    private static final String CSV_INSERT_SQL = """
+            INSERT INTO attendance_records (empid, name, record_date, domain, remark, status)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (record_date, empid) DO NOTHING
+            """;
     // ===========================
     // BULK UPLOAD CSV (SAME AS YOUR LOGIC)
     // ===========================
+    @Transactional
     public String saveBulk(List<AttendanceCsvFile> sheetRecords) {
 
         if (sheetRecords == null || sheetRecords.isEmpty()) {
@@ -39,15 +56,14 @@ public class AttendanceCsvFileService {
         }
 
         // Extract date from first non-empty row
-        String recordDate = sheetRecords.stream()
+        LocalDate recordDate = sheetRecords.stream()
                 .map(AttendanceCsvFile::getDate)
                 .filter(Objects::nonNull)
-                .filter(d -> !d.isBlank())
                 .findFirst()
                 .orElseThrow(() -> new RuntimeException("Invalid date format in CSV"));
 
         // Prevent duplicate upload
-        if (!repo.findByDate(recordDate).isEmpty()) {
+        if (repo.existsByDate(recordDate)) {
             return "CSV for this date already exists!";
         }
 
@@ -64,6 +80,7 @@ public class AttendanceCsvFileService {
                 r.setStatus("Present");
             }
             if (r.getRemark() == null) r.setRemark("");
+            if (r.getDate() == null) r.setDate(recordDate);
         });
 
         // Add absentees for all employees not in sheet
@@ -85,11 +102,203 @@ public class AttendanceCsvFileService {
 
         repo.saveAll(sheetRecords);
         repo.saveAll(absentees);
+        repo.flush();
+        dailySummaryService.refresh(recordDate);
+        filterService.evictDate(recordDate);
 
         return "Attendance CSV imported successfully for " + recordDate;
     }
 
 
+    // ===========================
+    // STREAMING CSV UPLOAD (multipart text/csv)
+    // Rows are read line by line, validated, and written in JDBC batches of CSV_BATCH_SIZE,
+    // so heap use does not grow with the sheet. Each batch commits on its own (no transaction held
+    // open for the whole parse); duplicate empids are rejected by the insert itself.
+    // A failed upload removes the date's rows again, so the sheet can simply be re-sent.
+    // Absentees are added with one INSERT ... SELECT.
+    // Columns are matched by header name (empid, name, date, domain, remark, status);
+    // without a recognizable header the sheet order empid,name,date,domain,remark,status is used.
+    // ===========================
+    public Map<String, Object> importCsv(InputStream in) throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        List<String> errors = new ArrayList<>();
+        List<Object[]> batch = new ArrayList<>(CSV_BATCH_SIZE);
+        int[] batchLines = new int[CSV_BATCH_SIZE];
+
+        LocalDate recordDate = null;
+        int inserted = 0;
+        int[] rejected = {0};
+        int lineNo = 0;
+        int[] col = {0, 1, 2, 3, 4, 5}; // empid, name, date, domain, remark, status
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                if (lineNo == 1) {
+                    line = line.replace("\uFEFF", "");
+                    int[] mapped = headerColumns(splitCsvLine(line));
+                    if (mapped != null) {
+                        col = mapped;
+                        continue;
+                    }
+                }
+                if (line.isBlank()) continue;
+
+                List<String> f = splitCsvLine(line);
+                String empid = field(f, col[0]);
+                String rawDate = field(f, col[2]);
+                LocalDate date = SheetDates.parse(rawDate);
+                String status = field(f, col[5]);
+
+                String error = null;
+                if (empid.isEmpty()) {
+                    error = "missing empid";
+                } else if (rawDate.isEmpty()) {
+                    error = "missing date";
+                } else if (date == null) {
+                    error = "invalid date '" + rawDate + "'";
+                } else if (recordDate != null && !recordDate.equals(date)) {
+                    error = "date " + date + " does not match sheet date " + recordDate;
+                } else if (!status.isEmpty() && !CSV_STATUSES.contains(status.toUpperCase())) {
+                    error = "unknown status '" + status + "'";
+                }
+
+                if (error != null) {
+                    reject(errors, rejected, lineNo, error);
+                    continue;
+                }
+
+                if (recordDate == null) {
+                    recordDate = date;
+                    // Prevent duplicate upload
+                    if (repo.existsByDate(recordDate)) {
+                        result.put("message", "CSV for this date already exists!");
+                        result.put("date", recordDate);
+                        return result;
+                    }
+                }
+
+                batchLines[batch.size()] = lineNo;
+                batch.add(new Object[]{
+                        empid,
+                        field(f, col[1]),
+                        recordDate,
+                        field(f, col[3]),
+                        field(f, col[4]),
+                        status.isEmpty() ? "Present" : status
+                });
+                if (batch.size() == CSV_BATCH_SIZE) {
+                    inserted += flushCsvBatch(batch, batchLines, errors, rejected);
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                inserted += flushCsvBatch(batch, batchLines, errors, rejected);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Earlier batches are already committed → drop the partial sheet
+            if (recordDate != null) {
+                jdbcTemplate.update("DELETE FROM attendance_records WHERE record_date = ?", recordDate);
+            }
+            throw e;
+        }
+
+        if (recordDate == null) {
+            result.put("message", "Sheet is empty!");
+            result.put("rejected", rejected[0]);
+            result.put("errors", errors);
+            return result;
+        }
+
+        int absentees = repo.insertMissingAbsentees(recordDate);
+        dailySummaryService.refresh(recordDate);
+        filterService.evictDate(recordDate);
+
+        result.put("message", "Attendance CSV imported successfully for " + recordDate);
+        result.put("date", recordDate);
+        result.put("inserted", inserted);
+        result.put("absentees", absentees);
+        result.put("rejected", rejected[0]);
+        result.put("errors", errors);
+        return result;
+    }
+
+    // One auto-committed JDBC batch; rows the database skipped as duplicates are reported by line
+    private int flushCsvBatch(List<Object[]> batch, int[] batchLines, List<String> errors, int[] rejected) {
+        int[] counts = jdbcTemplate.batchUpdate(CSV_INSERT_SQL, batch);
+        int inserted = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                reject(errors, rejected, batchLines[i], "duplicate empid " + batch.get(i)[0]);
+            } else {
+                inserted++;
+            }
+        }
+        batch.clear();
+        return inserted;
+    }
+
+    private void reject(List<String> errors, int[] rejected, int lineNo, String error) {
+        rejected[0]++;
+        if (errors.size() < CSV_MAX_REPORTED_ERRORS) errors.add("line " + lineNo + ": " + error);
+    }
+
+    // Header row → column positions, or null when the first line is data
+    private int[] headerColumns(List<String> header) {
+        int[] col = {-1, -1, -1, -1, -1, -1};
+        for (int i = 0; i < header.size(); i++) {
+            String h = header.get(i).toLowerCase().replace(" ", "").replace("_", "");
+            switch (h) {
+                case "empid", "employeeid" -> col[0] = i;
+                case "name", "fullname" -> col[1] = i;
+                case "date" -> col[2] = i;
+                case "domain" -> col[3] = i;
+                case "remark", "remarks" -> col[4] = i;
+                case "status" -> col[5] = i;
+                default -> { }
+            }
+        }
+        return (col[0] >= 0 && col[2] >= 0) ? col : null;
+    }
+
+    private String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) return "";
+        return fields.get(index).trim();
+    }
+
+    // Minimal RFC 4180 split: commas, "quoted, fields" and "" escapes
+    private List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder cur = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cur.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cur.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(cur.toString());
+                cur.setLength(0);
+            } else {
+                cur.append(c);
+            }
+        }
+        fields.add(cur.toString());
+        return fields;
+    }
+
+
     // ===========================
     // BASIC OPERATIONS
     // ===========================
@@ -98,60 +307,39 @@ public class AttendanceCsvFileService {
     }
 
 
+    // Month (name, current year) / exact date (yyyy-MM-dd or MM/dd/yyyy) → indexed range query
     public List<AttendanceCsvFile> filterAttendance(String month, String date) {
 
-        List<AttendanceCsvFile> all = repo.findAll();
-
-        // Filter by Month (MM in MM/dd/yyyy)
-        if (month != null && !month.isEmpty()) {
-            int monthIndex = Month.valueOf(month.toUpperCase()).getValue();
-            all = all.stream()
-                    .filter(a -> {
-                        try {
-                            String[] parts = a.getDate().split("/");
-                            return Integer.parseInt(parts[0]) == monthIndex;
-                        } catch (Exception e) {
-                            return false;
-                        }
-                    })
-                    .collect(Collectors.toList());
+        LocalDate exact = SheetDates.parse(date);
+        if (exact != null) {
+            return repo.findByDateBetweenOrderByDateAscIdAsc(exact, exact);
         }
 
-        // Filter by specific Date string
-        if (date != null && !date.isEmpty()) {
-            all = all.stream()
-                    .filter(a -> a.getDate().equals(date))
-                    .collect(Collectors.toList());
+        if (month != null && !month.isEmpty()) {
+            YearMonth ym = YearMonth.of(LocalDate.now().getYear(), Month.valueOf(month.toUpperCase()));
+            return repo.findByDateBetweenOrderByDateAscIdAsc(ym.atDay(1), ym.atEndOfMonth());
         }
 
-        return all;
+        return repo.findAll();
     }
 
 
+    @Transactional
     public String updateStatus(int id, String newStatus) {
         AttendanceCsvFile row = repo.findById(id).orElse(null);
         if (row == null) return "Record not found";
 
         row.setStatus(newStatus);
-        repo.save(row);
+        repo.saveAndFlush(row);
+        dailySummaryService.refresh(row.getDate());
+        filterService.evictDate(row.getDate());
         return "Status updated";
     }
 
 
+    // Served from the in-memory counters (same keys: total / present / absent / leave / late / halfDay)
     public Map<String, Long> getTodayStats() {
-
-        String today = LocalDate.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-        List<AttendanceCsvFile> todayRecords = repo.findByDate(today);
-
-        Map<String, Long> stats = new HashMap<>();
-        stats.put("total", (long) todayRecords.size());
-        stats.put("present", todayRecords.stream().filter(r -> "Present".equalsIgnoreCase(r.getStatus())).count());
-        stats.put("absent", todayRecords.stream().filter(r -> "Absent".equalsIgnoreCase(r.getStatus())).count());
-        stats.put("leave", todayRecords.stream().filter(r -> "Leave".equalsIgnoreCase(r.getStatus())).count());
-        stats.put("late", todayRecords.stream().filter(r -> "Late".equalsIgnoreCase(r.getStatus())).count());
-        stats.put("halfDay", todayRecords.stream().filter(r -> "Half_day".equalsIgnoreCase(r.getStatus())).count());
-
-        return stats;
+        return liveStats.sheetCounts();
     }
 
 
@@ -160,103 +348,9 @@ public class AttendanceCsvFileService {
     // =====================================================================================
     @Scheduled(cron = "0 40 18 * * MON-FRI") // 6:40 PM — Only weekdays
     public void finalizeDailyAttendanceFromCsv() {
-
-        LocalDate today = LocalDate.now();
-        String todayStr = today.toString();
-
-        List<AttendanceCsvFile> csvRecords = repo.findByDate(todayStr);
-        if (csvRecords.isEmpty()) return;
-
-        for (AttendanceCsvFile csv : csvRecords) {
-
-            String empid = csv.getEmployeeId();
-            if (empid == null || empid.trim().isEmpty()) continue;
-
-            Users user = userRepo.findByEmpid(empid).orElse(null);
-            if (user == null) continue;
-
-            Attendance att = attendanceRepository.findByUserIdAndDate(user.getId(), today);
-
-            String csvStatus = csv.getStatus() != null ? csv.getStatus().toUpperCase().trim() : "ABSENT";
-            if (csvStatus.isEmpty()) csvStatus = "ABSENT";
-
-            long workedHours = 0;
-            LocalTime login = null;
-            LocalTime logout = null;
-
-            if (att != null) {
-                login = att.getLoginTime();
-                logout = att.getLogoutTime();
-
-                if (login != null && logout != null) {
-                    workedHours = Duration.between(login, logout).toHours();
-                }
-            }
-
-            String finalStatus;
-            String finalRemark;
-
-            switch (csvStatus) {
-
-                case "ABSENT":
-                    finalStatus = "ABSENT";
-                    finalRemark = "Absent For Today's Standup Call";
-                    break;
-
-                case "LEAVE":
-                    finalStatus = "LEAVE";
-                    finalRemark = "Finalized from CSV: Leave";
-                    break;
-
-                case "HALF_DAY":
-                case "HALF-DAY":
-                case "HALFDAY":
-                    finalStatus = "HALF_DAY";
-                    finalRemark = "Finalized from CSV: Half Day";
-                    break;
-
-                default: // PRESENT or any other input
-                    if (att == null || login == null) {
-                        finalStatus = "ABSENT";
-                        finalRemark = "No Login Found ⇒ Absent";
-                    } else {
-                        if (!login.isAfter(FULL_PRESENT_LIMIT) &&
-                                logout != null &&
-                                !logout.isBefore(LocalTime.of(18, 0)) ) {
-
-                            finalStatus = "PRESENT";
-                            finalRemark = "Full Day Present — Time Condition Met";
-
-                        } else {
-                            if (workedHours < MIN_HOURS) {
-                                finalStatus = "ABSENT";
-                                finalRemark = "Worked: " + workedHours + " Hrs ⇒ ABSENT";
-                            } else if (login.isAfter(FULL_PRESENT_LIMIT)) {
-                                finalStatus = "HALF_DAY";
-                                finalRemark = "Late Login ⇒ HALF DAY";
-                            } else {
-                                finalStatus = (workedHours >= FULL_DAY_HOURS) ? "PRESENT" : "HALF_DAY";
-                                finalRemark = "Worked: " + workedHours + " Hrs ⇒ " + finalStatus;
-                            }
-                        }
-                    }
-                    break;
-            }
-
-            if (att == null) {
-                att = Attendance.builder()
-                        .user(user)
-                        .empid(user.getEmpid())
-                        .date(today)
-                        .build();
-            }
-
-            att.setStatus(finalStatus);
-            att.setRemarks(finalRemark);
-            attendanceRepository.save(att);
-        }
-
-        System.out.println("✔ Attendance Finalized using Login/Logout Rules - " + todayStr);
+        // Set-based engine: joined read, parallel rule evaluation, batched upsert
+        JobRunReport report = finalizationService.finalizeDate(LocalDate.now());
+        System.out.println("✔ Attendance Finalized using Login/Logout Rules — " + report);
     }
 }
 
@@ -0,0 +1,68 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.dto.AttendanceStatsDTO;
+import com.example.employee_service_mama.model.AttendanceDailySummary;
+import com.example.employee_service_mama.repository.AttendanceDailySummaryRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+// Per-date counters of the CSV attendance sheet (attendance_records).
+// CSV import and HR status edits call refresh() for the dates they touched, inside their own
+// transaction, so the summary commits together with the rows it counts.
+@Service
+@RequiredArgsConstructor
+public class AttendanceDailySummaryService {
+
+    private final AttendanceDailySummaryRepository dailySummaryRepository;
+    private final LiveAttendanceStats liveStats;
+
+    // First start with an empty table → build the counters from history once
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (dailySummaryRepository.count() > 0) return;
+
+        int rows = dailySummaryRepository.rebuildAll();
+        System.out.println("✔ Attendance daily summary backfilled — " + rows + " dates");
+    }
+
+    public void refresh(LocalDate date) {
+        if (date == null) return;
+        dailySummaryRepository.refresh(List.of(date));
+        liveStats.onSheetWritten(date);
+    }
+
+    public void refresh(Collection<LocalDate> dates) {
+        if (dates == null) return;
+
+        List<LocalDate> distinct = dates.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinct.isEmpty()) return;
+
+        dailySummaryRepository.refresh(distinct);
+        distinct.forEach(liveStats::onSheetWritten);
+    }
+
+    // Whole history, or [from, to] when both are given; oldest first
+    public List<AttendanceStatsDTO> getDailySummary(LocalDate from, LocalDate to) {
+        List<AttendanceDailySummary> rows = (from != null && to != null)
+                ? dailySummaryRepository.findByDateBetweenOrderByDateAsc(from, to)
+                : dailySummaryRepository.findAllByOrderByDateAsc();
+
+        return rows.stream()
+                .map(s -> new AttendanceStatsDTO(
+                        s.getDate().toString(),
+                        s.getPresent(),
+                        s.getAbsent(),
+                        s.getLeave(),
+                        s.getLate(),
+                        s.getHalfDay(),
+                        s.getTotal()))
+                .toList();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.model.Attendance;
+import com.example.employee_service_mama.repository.AttendanceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Today's attendance state per user, kept in memory so login / logout / today
+// don't need to read the attendance table on every request.
+// Warmed at midnight (or lazily on first use), updated by every write on this
+// instance; writes from elsewhere (bulk jobs, CDC events) evict the user so the
+// next read goes back to the database.
+@Service
+@RequiredArgsConstructor
+public class AttendanceDayCache {
+
+    private final AttendanceRepository attendanceRepository;
+
+    private final ConcurrentHashMap<Integer, Attendance> rows = new ConcurrentHashMap<>();
+    private final Set<Integer> stale = ConcurrentHashMap.newKeySet();
+    private volatile LocalDate day;
+
+    @Scheduled(cron = "0 0 0 * * *") // Midnight
+    public synchronized void warm() {
+        LocalDate today = LocalDate.now();
+
+        rows.clear();
+        stale.clear();
+        for (Object[] row : attendanceRepository.findByDateWithUserId(today)) {
+            rows.put((Integer) row[0], copyOf((Attendance) row[1]));
+        }
+        day = today;
+    }
+
+    // Today's row for the user (a copy), or null when the user has no row today
+    public Attendance get(Integer userId) {
+        ensureToday();
+
+        if (stale.contains(userId)) {
+            Attendance fresh = attendanceRepository.findByUserIdAndDate(userId, day);
+            if (fresh != null) rows.put(userId, copyOf(fresh));
+            else rows.remove(userId);
+            stale.remove(userId);
+        }
+
+        Attendance row = rows.get(userId);
+        return row == null ? null : copyOf(row);
+    }
+
+    public void put(Integer userId, Attendance row) {
+        ensureToday();
+        if (!day.equals(row.getDate())) return;
+
+        rows.put(userId, copyOf(row));
+        stale.remove(userId);
+    }
+
+    public void evict(Integer userId) {
+        stale.add(userId);
+    }
+
+    public void evict(Collection<Integer> userIds) {
+        stale.addAll(userIds);
+    }
+
+    private void ensureToday() {
+        if (!LocalDate.now().equals(day)) {
+            synchronized (this) {
+                if (!LocalDate.now().equals(day)) warm();
+            }
+        }
+    }
+
+    private static Attendance copyOf(Attendance a) {
+        return Attendance.builder()
+                .id(a.getId())
+                .empid(a.getEmpid())
+                .date(a.getDate())
+                .loginTime(a.getLoginTime())
+                .logoutTime(a.getLogoutTime())
+                .status(a.getStatus())
+                .remarks(a.getRemarks())
+                .markedBy(a.getMarkedBy())
+                .createdAt(a.getCreatedAt())
+                .updatedAt(a.getUpdatedAt())
+                .build();
+    }
+}
@@ -1,28 +1,63 @@
 package com.example.employee_service_mama.service;
 
+import com.example.employee_service_mama.config.CacheConfig;
 import com.example.employee_service_mama.model.AttendanceCsvFile;
 import com.example.employee_service_mama.repository.AttendanceCsvFileRepository;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
 import java.time.Month;
-import java.time.format.DateTimeFormatter;
+import java.sql.PreparedStatement;
+import java.time.YearMonth;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Service
 @RequiredArgsConstructor
 public class AttendanceFilterService {
 
     private final AttendanceCsvFileRepository repo;
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final AttendanceDailySummaryService dailySummaryService;
+
+    // All rows in one statement: (id, status) pairs arrive as two parallel arrays
+    private static final String BULK_STATUS_SQL = """
+            UPDATE attendance_records r
+            SET status = v.status
+            FROM unnest(CAST(? AS integer[]), CAST(? AS text[])) AS v(id, status)
+            WHERE r.id = v.id
+            RETURNING r.id, r.record_date
+            """;
+
+    // Per-month write generation, bumped after every committed write to a date in that month.
+    // A load that started before the commit still completes, but under the old generation's key,
+    // which no later lookup asks for.
+    private final ConcurrentHashMap<YearMonth, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    // Cache key = resolved [from, to] range + the sum of its months' generations when it was loaded.
+    // Generations only grow, so the sum changes exactly when a month inside the range was written.
+    private record DateRangeKey(LocalDate from, LocalDate to, long generation) {
+        boolean covers(YearMonth month) {
+            return !YearMonth.from(from).isAfter(month) && !YearMonth.from(to).isBefore(month);
+        }
+    }
 
-    // @Cacheable(value = "attendanceAllCache")
-    public List<AttendanceCsvFile> filterAttendance(String month, String date) {
-
-        List<AttendanceCsvFile> all = repo.findAll();
+    // Month (1–12 or name) within year (default: current) / exact date → indexed range on record_date
+    public List<AttendanceCsvFile> filterAttendance(String month, String date, Integer year) {
 
         Integer targetMonth = null;
         LocalDate targetDate = null;
@@ -45,51 +80,143 @@ public class AttendanceFilterService {
             } catch (Exception ignore) {}
         }
 
-        Integer finalMonth = targetMonth;
-        LocalDate finalDate = targetDate;
-
-        return all.stream()
-                .filter(row -> {
-
-                    if (row.getDate() == null || row.getDate().isBlank()) {
-                        return false;
-                    }
-
-                    LocalDate recordDate;
-                    try {
-                        recordDate = LocalDate.parse(row.getDate()); // parse DB "YYYY-MM-DD"
-                    } catch (Exception e) {
-                        return false;
-                    }
+        if (targetDate != null) {
+            // Date outside the selected month → nothing matches (same as before)
+            if (targetMonth != null && targetDate.getMonthValue() != targetMonth) return List.of();
+            return cachedRange(targetDate, targetDate);
+        }
 
-                    // Filter by date
-                    if (finalDate != null && !recordDate.equals(finalDate)) {
-                        return false;
-                    }
+        if (targetMonth != null && targetMonth >= 1 && targetMonth <= 12) {
+            YearMonth ym = YearMonth.of(year != null ? year : LocalDate.now().getYear(), targetMonth);
+            return cachedRange(ym.atDay(1), ym.atEndOfMonth());
+        }
 
-                    // Filter by month
-                    if (finalMonth != null && recordDate.getMonthValue() != finalMonth) {
-                        return false;
-                    }
+        if (year != null) {
+            return cachedRange(LocalDate.of(year, 1, 1), LocalDate.of(year, 12, 31));
+        }
 
-                    return true;
-                })
-                .collect(Collectors.toList());
+        return repo.findAll();
     }
 
 
 
-    //@CacheEvict(value = {"attendanceAllCache"}, allEntries = true)
+    @Transactional
     public String updateStatus(int id, String newStatus) {
         AttendanceCsvFile row = repo.findById(id).orElse(null);
         if (row == null) return "Record not found";
 
         row.setStatus(newStatus);
-        repo.save(row);
+        repo.saveAndFlush(row);
+        dailySummaryService.refresh(row.getDate());
+        evictDate(row.getDate());
 
         return "Status updated";
     }
 
+    // BULK → one UPDATE ... FROM unnest(...) in one transaction; per-id "updated" / "not found" / "invalid"
+    @Transactional
+    public Map<String, Object> updateStatusBulk(List<AttendanceCsvFile> updates) {
+        Map<Integer, String> requested = new LinkedHashMap<>(); // last edit per id wins
+        Map<Integer, String> results = new LinkedHashMap<>();
+        int invalid = 0;
+
+        for (AttendanceCsvFile u : updates) {
+            if (u.getId() == null || u.getStatus() == null || u.getStatus().isBlank()) {
+                invalid++;
+                if (u.getId() != null) results.put(u.getId(), "invalid");
+                continue;
+            }
+            requested.put(u.getId(), u.getStatus());
+        }
+
+        Set<Integer> updatedIds = new HashSet<>();
+        Set<LocalDate> touchedDates = new HashSet<>();
+
+        if (!requested.isEmpty()) {
+            Integer[] ids = requested.keySet().toArray(new Integer[0]);
+            String[] statuses = requested.values().toArray(new String[0]);
+
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(BULK_STATUS_SQL);
+                ps.setArray(1, con.createArrayOf("integer", ids));
+                ps.setArray(2, con.createArrayOf("text", statuses));
+                return ps;
+            }, rs -> {
+                updatedIds.add(rs.getInt(1));
+                java.sql.Date d = rs.getDate(2);
+                if (d != null) touchedDates.add(d.toLocalDate());
+            });
+        }
+
+        for (Integer id : requested.keySet()) {
+            results.put(id, updatedIds.contains(id) ? "updated" : "not found");
+        }
+        dailySummaryService.refresh(touchedDates);
+        touchedDates.forEach(this::evictDate);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("message", "Bulk update successful!");
+        report.put("updated", updatedIds.size());
+        report.put("notFound", requested.size() - updatedIds.size());
+        report.put("invalid", invalid);
+        report.put("results", results);
+        return report;
+    }
+
+    private List<AttendanceCsvFile> cachedRange(LocalDate from, LocalDate to) {
+        return filterCache().get(new DateRangeKey(from, to, generationOf(from, to)),
+                () -> List.copyOf(repo.findByDateBetweenOrderByDateAscIdAsc(from, to)));
+    }
+
+    private long generationOf(LocalDate from, LocalDate to) {
+        long sum = 0;
+        for (YearMonth m = YearMonth.from(from); !m.isAfter(YearMonth.from(to)); m = m.plusMonths(1)) {
+            AtomicLong g = generations.get(m);
+            if (g != null) sum += g.get();
+        }
+        return sum;
+    }
+
+    private CaffeineCache filterCache() {
+        return (CaffeineCache) cacheManager.getCache(CacheConfig.ATTENDANCE_FILTER_CACHE);
+    }
+
+    // Retire the cached ranges overlapping the date's month; inside a transaction this waits for the commit
+    public void evictDate(LocalDate date) {
+        if (date == null) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(YearMonth.from(date));
+                }
+            });
+        } else {
+            evictNow(YearMonth.from(date));
+        }
+    }
+
+    private void evictNow(YearMonth month) {
+        generations.computeIfAbsent(month, m -> new AtomicLong()).incrementAndGet();
+        // Only frees memory early; correctness comes from the generation in the key
+        filterCache().getNativeCache().asMap().keySet()
+                .removeIf(key -> key instanceof DateRangeKey range && range.covers(month));
+    }
+
+    public Map<String, Object> cacheStats() {
+        CacheStats stats = filterCache().getNativeCache().stats();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", filterCache().getNativeCache().estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictions", stats.evictionCount());
+        result.put("averageLoadMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return result;
+    }
+
     public List<AttendanceCsvFile> getAll() {
         return repo.findAll();
     }
@@ -0,0 +1,136 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.dto.JobRunReport;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+
+// CSV sheet + login / logout → final attendance status for a date.
+// Per date: one joined read (sheet ⨝ users ⟕ attendance), rules evaluated in parallel,
+// results upserted in JDBC batches inside one transaction; then summary / sandwich / caches.
+@Service
+@RequiredArgsConstructor
+public class AttendanceFinalizationService {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AttendanceSummaryService summaryService;
+    private final SandwichPolicyService sandwichPolicyService;
+    private final WalletService walletService;
+    private final AttendanceDayCache dayCache;
+    private final LiveAttendanceStats liveStats;
+
+    // Latest sheet row per employee for the date, with the employee's attendance row (if any)
+    private static final String LOAD_SQL = """
+            SELECT DISTINCT ON (u.id)
+                   u.id AS user_id, u.empid, r.status AS csv_status, a.login_time, a.logout_time
+            FROM attendance_records r
+            JOIN users u ON u.empid = r.empid
+            LEFT JOIN attendance a ON a.user_id = u.id AND a.date = r.record_date
+            WHERE r.record_date = ?
+              AND r.empid IS NOT NULL AND TRIM(r.empid) <> ''
+            ORDER BY u.id, r.id DESC
+            """;
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO attendance (user_id, empid, date, status, remarks, created_at)
+            VALUES (?, ?, ?, ?, ?, NOW())
+            ON CONFLICT (user_id, date) DO UPDATE SET
+                status = EXCLUDED.status,
+                remarks = EXCLUDED.remarks,
+                updated_at = NOW()
+            """;
+
+    private record SheetRow(int userId, String empid, String csvStatus, LocalTime login, LocalTime logout) {
+    }
+
+    private record Outcome(int userId, String empid, String status, String remarks) {
+    }
+
+    // ---------------- ONE DATE ----------------
+    public JobRunReport finalizeDate(LocalDate date) {
+        long start = System.nanoTime();
+
+        List<SheetRow> rows = jdbcTemplate.query(LOAD_SQL, (rs, i) -> new SheetRow(
+                rs.getInt("user_id"),
+                rs.getString("empid"),
+                rs.getString("csv_status"),
+                rs.getObject("login_time", LocalTime.class),
+                rs.getObject("logout_time", LocalTime.class)
+        ), date);
+
+        if (rows.isEmpty()) {
+            return new JobRunReport("Finalize CSV", date, 0, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        // Pure function per row → safe to evaluate across the common pool
+        List<Outcome> outcomes = rows.parallelStream().map(this::evaluate).toList();
+
+        List<Integer> userIds = outcomes.stream().map(Outcome::userId).toList();
+
+        transactionTemplate.executeWithoutResult(tx -> {
+            for (int i = 0; i < outcomes.size(); i += BATCH_SIZE) {
+                List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+                for (Outcome o : outcomes.subList(i, Math.min(i + BATCH_SIZE, outcomes.size()))) {
+                    batch.add(new Object[]{o.userId(), o.empid(), date, o.status(), o.remarks()});
+                }
+                jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+            }
+            summaryService.refresh(userIds, date);
+            sandwichPolicyService.onAttendanceWritten(userIds, date);
+            walletService.reaccrue(List.of(date)); // only if the date was already accrued (backfill)
+        });
+
+        if (date.equals(LocalDate.now())) {
+            dayCache.evict(userIds);
+            liveStats.reloadLive();
+        }
+
+        return new JobRunReport("Finalize CSV", date, outcomes.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // ---------------- BACKFILL ----------------
+    // Every date in [from, to]; dates without a sheet finish with 0 rows. One transaction per date.
+    public Map<String, Object> finalizeRange(LocalDate from, LocalDate to) {
+        long start = System.nanoTime();
+        List<JobRunReport> reports = new ArrayList<>();
+        long rows = 0;
+
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            JobRunReport report = finalizeDate(d);
+            if (report.getRowsAffected() > 0) {
+                reports.add(report);
+                rows += report.getRowsAffected();
+                System.out.println("✔ " + report);
+            }
+        }
+
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("datesFinalized", reports.size());
+        result.put("rows", rows);
+        result.put("durationMs", tookMs);
+        result.put("rowsPerSecond", tookMs == 0 ? rows : rows * 1000 / tookMs);
+        result.put("reports", reports);
+        return result;
+    }
+
+    // Sheet status + login / logout → AttendanceRules (no per-row allocation until the remark is built)
+    private Outcome evaluate(SheetRow row) {
+        int loginSec = AttendanceRules.seconds(row.login());
+        int logoutSec = AttendanceRules.seconds(row.logout());
+        AttendanceRules.Outcome outcome = AttendanceRules.evaluateSheet(row.csvStatus(), loginSec, logoutSec);
+
+        return new Outcome(row.userId(), row.empid(), outcome.status(),
+                AttendanceRules.finalizeRemarks(outcome, AttendanceRules.workedHours(loginSec, logoutSec)));
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.repository.LeaveRequestsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Re-applies AttendanceRules to stored attendance (policy change, retroactive leave approval).
+// Rows are streamed ordered by user, cut into per-user chunks evaluated in parallel; only rows
+// whose status / remarks would change are kept. Each evaluated chunk is written (unless dryRun)
+// in status-guarded JDBC batches on the reading transaction, folded into running totals and a
+// capped sample, then dropped — memory does not grow with the date range.
+@Service
+@RequiredArgsConstructor
+public class AttendanceRecomputeService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int CHUNK_ROWS = 2000;
+    private static final int BATCH_SIZE = 1000;
+    private static final int SAMPLE_SIZE = 200;
+    private static final String LEAVE_REMARKS = "Approved Leave — Recomputed";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LeaveRequestsRepository leaveRequestsRepository;
+    private final AttendanceSummaryService summaryService;
+    private final SandwichPolicyService sandwichPolicyService;
+    private final WalletService walletService;
+
+    // Stored row + latest CSV sheet status for the same employee / date
+    private static final String LOAD_SQL = """
+            SELECT a.id, a.user_id, a.date, a.login_time, a.logout_time, a.status, a.remarks,
+                   s.status AS sheet_status, (s.status IS NOT NULL) AS has_sheet
+            FROM attendance a
+            LEFT JOIN users u ON u.id = a.user_id
+            LEFT JOIN LATERAL (
+                SELECT COALESCE(r.status, '') AS status
+                FROM attendance_records r
+                WHERE r.empid = u.empid AND r.record_date = a.date
+                ORDER BY r.id DESC
+                LIMIT 1
+            ) s ON TRUE
+            WHERE a.date BETWEEN ? AND ?
+            """;
+
+    private static final String USER_FILTER = " AND a.user_id = ANY(?)";
+    private static final String ORDER = " ORDER BY a.user_id, a.date";
+
+    private static final String UPDATE_SQL = """
+            UPDATE attendance
+            SET status = ?, remarks = ?, updated_at = NOW()
+            WHERE id = ? AND status IS NOT DISTINCT FROM ?
+            """;
+
+    private record Row(int id, int userId, LocalDate date, LocalTime login, LocalTime logout,
+                       String status, String remarks, boolean hasSheet, String sheetStatus) {
+    }
+
+    public record Diff(int id, int userId, LocalDate date,
+                       String oldStatus, String newStatus, String oldRemarks, String newRemarks) {
+    }
+
+    // Running totals of the diffs; each evaluated chunk is folded in and dropped, so memory
+    // stays bounded by the in-flight chunks whatever the date range
+    private static final class Tally {
+        long changed;
+        int applied;
+        final Map<String, Long> transitions = new TreeMap<>();
+        final List<Diff> sample = new ArrayList<>();
+        final Map<LocalDate, Set<Integer>> byMonth = new HashMap<>();
+        final Map<LocalDate, Set<Integer>> sandwichByDay = new HashMap<>();
+        final Set<LocalDate> dates = new HashSet<>();
+
+        void add(List<Diff> diffs) {
+            for (Diff d : diffs) {
+                changed++;
+                transitions.merge(d.oldStatus() + " → " + d.newStatus(), 1L, Long::sum);
+                if (sample.size() < SAMPLE_SIZE) sample.add(d);
+
+                byMonth.computeIfAbsent(d.date().withDayOfMonth(1), k -> new HashSet<>()).add(d.userId());
+                dates.add(d.date());
+                // Any Friday / Monday change can start or end a sandwich
+                DayOfWeek dow = d.date().getDayOfWeek();
+                if (dow == DayOfWeek.FRIDAY || dow == DayOfWeek.MONDAY) {
+                    sandwichByDay.computeIfAbsent(d.date(), k -> new HashSet<>()).add(d.userId());
+                }
+            }
+        }
+    }
+
+    // Dates up to yesterday only: today is still open and handled by the daily jobs.
+    // Reading, writing and the summary / sandwich follow-up share one transaction.
+    public Map<String, Object> recompute(LocalDate from, LocalDate to, List<Integer> userIds, boolean dryRun) {
+        long start = System.nanoTime();
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        LocalDate until = to.isAfter(yesterday) ? yesterday : to;
+
+        Map<Integer, List<LocalDate[]>> leaves = approvedLeaves(from, until);
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int maxInFlight = threads * 2;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<CompletableFuture<List<Diff>>> inFlight = new ArrayDeque<>();
+        Tally tally = new Tally();
+        long[] scanned = {0};
+
+        try {
+            if (!from.isAfter(until)) {
+                transactionTemplate.executeWithoutResult(tx -> {
+                    streamRows(from, until, userIds, new ChunkSink() {
+                        List<Row> chunk = new ArrayList<>(CHUNK_ROWS);
+
+                        @Override
+                        public void accept(Row row) {
+                            scanned[0]++;
+                            // Cut only at a user boundary so one user's days stay in one task
+                            if (chunk.size() >= CHUNK_ROWS && chunk.get(chunk.size() - 1).userId() != row.userId()) {
+                                submit();
+                            }
+                            chunk.add(row);
+                        }
+
+                        @Override
+                        public void finish() {
+                            if (!chunk.isEmpty()) submit();
+                            while (!inFlight.isEmpty()) drain();
+                        }
+
+                        private void submit() {
+                            List<Row> work = chunk;
+                            chunk = new ArrayList<>(CHUNK_ROWS);
+                            inFlight.addLast(CompletableFuture.supplyAsync(() -> evaluate(work, leaves), pool));
+
+                            // Back-pressure: the cursor waits for the oldest chunk
+                            while (inFlight.size() > maxInFlight || (!inFlight.isEmpty() && inFlight.peekFirst().isDone())) {
+                                drain();
+                            }
+                        }
+
+                        private void drain() {
+                            List<Diff> diffs = inFlight.pollFirst().join();
+                            if (!dryRun && !diffs.isEmpty()) tally.applied += write(diffs);
+                            tally.add(diffs);
+                        }
+                    });
+
+                    if (!dryRun) followUp(tally);
+                });
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("from", from);
+        report.put("to", until);
+        report.put("dryRun", dryRun);
+        report.put("scanned", scanned[0]);
+        report.put("changed", tally.changed);
+        report.put("applied", tally.applied);
+        report.put("transitions", tally.transitions);
+        report.put("durationMs", (System.nanoTime() - start) / 1_000_000);
+        report.put("sample", tally.sample);
+        return report;
+    }
+
+    private interface ChunkSink {
+        void accept(Row row);
+
+        void finish();
+    }
+
+    private void streamRows(LocalDate from, LocalDate to, List<Integer> userIds, ChunkSink sink) {
+        boolean filtered = userIds != null && !userIds.isEmpty();
+        String sql = LOAD_SQL + (filtered ? USER_FILTER : "") + ORDER;
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE); // cursor-based read (inside the transaction)
+            ps.setObject(1, from);
+            ps.setObject(2, to);
+            if (filtered) {
+                Array ids = con.createArrayOf("integer", userIds.toArray());
+                ps.setArray(3, ids);
+            }
+            return ps;
+        }, rs -> {
+            sink.accept(new Row(
+                    rs.getInt("id"),
+                    rs.getInt("user_id"),
+                    rs.getObject("date", LocalDate.class),
+                    rs.getObject("login_time", LocalTime.class),
+                    rs.getObject("logout_time", LocalTime.class),
+                    rs.getString("status"),
+                    rs.getString("remarks"),
+                    rs.getBoolean("has_sheet"),
+                    rs.getString("sheet_status")
+            ));
+        });
+        sink.finish();
+    }
+
+    // Pure: rows of a few users → rows whose status / remarks change
+    private List<Diff> evaluate(List<Row> rows, Map<Integer, List<LocalDate[]>> leaves) {
+        List<Diff> diffs = new ArrayList<>();
+
+        for (Row r : rows) {
+            int loginSec = AttendanceRules.seconds(r.login());
+            int logoutSec = AttendanceRules.seconds(r.logout());
+            int hours = AttendanceRules.workedHours(loginSec, logoutSec);
+
+            String status;
+            String remarks;
+
+            if (onLeave(leaves.get(r.userId()), r.date())) {
+                status = AttendanceRules.Outcome.APPROVED_LEAVE.status();
+                remarks = LEAVE_REMARKS;
+            } else if (r.hasSheet()) {
+                AttendanceRules.Outcome o = AttendanceRules.evaluateSheet(r.sheetStatus(), loginSec, logoutSec);
+                status = o.status();
+                remarks = AttendanceRules.finalizeRemarks(o, hours);
+            } else if (loginSec != AttendanceRules.NONE && logoutSec != AttendanceRules.NONE) {
+                if (isAutoLogout(r)) {
+                    AttendanceRules.Outcome o = AttendanceRules.evaluateAutoLogout(loginSec);
+                    status = o.status();
+                    remarks = AttendanceRules.autoLogoutRemarks(o);
+                } else {
+                    AttendanceRules.Outcome o = AttendanceRules.evaluateDay(loginSec, logoutSec);
+                    status = o.status();
+                    remarks = AttendanceRules.logoutRemarks(o, hours);
+                }
+            } else {
+                continue; // no login (auto-absent, sandwich, manual) → left as stored
+            }
+
+            if (!status.equals(r.status()) || !remarks.equals(r.remarks())) {
+                diffs.add(new Diff(r.id(), r.userId(), r.date(), r.status(), status, r.remarks(), remarks));
+            }
+        }
+        return diffs;
+    }
+
+    private boolean isAutoLogout(Row r) {
+        return AttendanceRules.AUTO_LOGOUT_TIME.equals(r.logout())
+                && r.remarks() != null && r.remarks().startsWith("Auto");
+    }
+
+    private boolean onLeave(List<LocalDate[]> ranges, LocalDate date) {
+        if (ranges == null) return false;
+        for (LocalDate[] range : ranges) {
+            if (!date.isBefore(range[0]) && !date.isAfter(range[1])) return true;
+        }
+        return false;
+    }
+
+    private Map<Integer, List<LocalDate[]>> approvedLeaves(LocalDate from, LocalDate to) {
+        Map<Integer, List<LocalDate[]>> byUser = new HashMap<>();
+        if (from.isAfter(to)) return byUser;
+
+        for (Object[] row : leaveRequestsRepository.findApprovedRanges(from, to)) {
+            byUser.computeIfAbsent((Integer) row[0], k -> new ArrayList<>())
+                    .add(new LocalDate[]{(LocalDate) row[1], (LocalDate) row[2]});
+        }
+        return byUser;
+    }
+
+    // Batched, status-guarded UPDATE (joins the recompute transaction)
+    private int write(List<Diff> diffs) {
+        int count = 0;
+        for (int i = 0; i < diffs.size(); i += BATCH_SIZE) {
+            List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+            for (Diff d : diffs.subList(i, Math.min(i + BATCH_SIZE, diffs.size()))) {
+                batch.add(new Object[]{d.newStatus(), d.newRemarks(), d.id(), d.oldStatus()});
+            }
+            for (int n : jdbcTemplate.batchUpdate(UPDATE_SQL, batch)) {
+                count += (n < 0) ? 1 : n; // SUCCESS_NO_INFO counts as applied
+            }
+        }
+        return count;
+    }
+
+    // Re-aggregate each touched user-month; mark or revert the sandwich of each changed Friday / Monday;
+    // re-credit salary for changed dates that were already accrued
+    private void followUp(Tally tally) {
+        tally.byMonth.forEach((month, users) -> summaryService.refresh(users, month));
+        tally.sandwichByDay.forEach((day, users) -> sandwichPolicyService.onAttendanceWritten(users, day));
+        walletService.reaccrue(tally.dates);
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.employee_service_mama.service;
+
+import java.time.LocalTime;
+
+// The one copy of the attendance status rules (logout, auto-logout, CSV finalization, recompute).
+// Times are passed as seconds of day (NONE when missing) and the result is an enum constant,
+// so evaluation does no allocation; remarks text is only built when a row is written.
+public final class AttendanceRules {
+
+    public static final int NONE = -1;
+
+    public static final LocalTime FULL_PRESENT_LIMIT = LocalTime.of(9, 5);
+    public static final LocalTime FULL_DAY_END = LocalTime.of(18, 0);
+    public static final LocalTime AUTO_LOGOUT_TIME = LocalTime.of(18, 30);
+    public static final int FULL_DAY_HOURS = 9;
+    public static final int MIN_HOURS = 5;
+
+    private static final int FULL_PRESENT_LIMIT_SEC = FULL_PRESENT_LIMIT.toSecondOfDay();
+    private static final int FULL_DAY_END_SEC = FULL_DAY_END.toSecondOfDay();
+    private static final int AUTO_LOGOUT_SEC = AUTO_LOGOUT_TIME.toSecondOfDay();
+
+    public enum Outcome {
+        FULL_DAY_TIME("PRESENT"),     // login ≤ 09:05 and logout ≥ 18:00
+        UNDER_MIN_HOURS("ABSENT"),    // worked < 5 h
+        LATE_LOGIN("HALF_DAY"),       // login after 09:05, ≥ 5 h
+        FULL_HOURS("PRESENT"),        // ≥ 9 h
+        PARTIAL_HOURS("HALF_DAY"),    // 5 – 9 h
+        NO_LOGIN("ABSENT"),
+        AUTO_UNDER_MIN_HOURS("ABSENT"),
+        AUTO_HALF_DAY("HALF_DAY"),
+        SHEET_ABSENT("ABSENT"),
+        SHEET_LEAVE("LEAVE"),
+        SHEET_HALF_DAY("HALF_DAY"),
+        APPROVED_LEAVE("LEAVE");
+
+        private final String status;
+
+        Outcome(String status) {
+            this.status = status;
+        }
+
+        public String status() {
+            return status;
+        }
+    }
+
+    private AttendanceRules() {
+    }
+
+    public static int seconds(LocalTime time) {
+        return time == null ? NONE : time.toSecondOfDay();
+    }
+
+    // Whole hours between login and logout (0 when either is missing), truncated like Duration.toHours
+    public static int workedHours(int loginSec, int logoutSec) {
+        if (loginSec == NONE || logoutSec == NONE) return 0;
+        return (logoutSec - loginSec) / 3600;
+    }
+
+    // Login / logout day rule
+    public static Outcome evaluateDay(int loginSec, int logoutSec) {
+        if (loginSec == NONE) return Outcome.NO_LOGIN;
+
+        boolean late = loginSec > FULL_PRESENT_LIMIT_SEC;
+        if (!late && logoutSec != NONE && logoutSec >= FULL_DAY_END_SEC) return Outcome.FULL_DAY_TIME;
+
+        int hours = workedHours(loginSec, logoutSec);
+        if (hours < MIN_HOURS) return Outcome.UNDER_MIN_HOURS;
+        if (late) return Outcome.LATE_LOGIN;
+        return hours >= FULL_DAY_HOURS ? Outcome.FULL_HOURS : Outcome.PARTIAL_HOURS;
+    }
+
+    // Forgot-logout rule: closed at 18:30, never better than HALF_DAY
+    public static Outcome evaluateAutoLogout(int loginSec) {
+        return workedHours(loginSec, AUTO_LOGOUT_SEC) < MIN_HOURS
+                ? Outcome.AUTO_UNDER_MIN_HOURS
+                : Outcome.AUTO_HALF_DAY;
+    }
+
+    // CSV sheet status wins for ABSENT / LEAVE / HALF_DAY; anything else falls back to the day rule
+    public static Outcome evaluateSheet(String sheetStatus, int loginSec, int logoutSec) {
+        if (sheetStatus == null || sheetStatus.isBlank() || sheetStatus.strip().equalsIgnoreCase("ABSENT")) {
+            return Outcome.SHEET_ABSENT;
+        }
+        String s = sheetStatus.strip();
+        if (s.equalsIgnoreCase("LEAVE")) return Outcome.SHEET_LEAVE;
+        if (s.equalsIgnoreCase("HALF_DAY") || s.equalsIgnoreCase("HALF-DAY") || s.equalsIgnoreCase("HALFDAY")) {
+            return Outcome.SHEET_HALF_DAY;
+        }
+        return evaluateDay(loginSec, logoutSec);
+    }
+
+    // Remarks written by a user's own logout
+    public static String logoutRemarks(Outcome outcome, int hours) {
+        return switch (outcome) {
+            case FULL_DAY_TIME -> "Full Day Present — Time Condition Met";
+            case LATE_LOGIN -> "Logout — Late Login | HALF DAY";
+            default -> "Logout — Worked: " + hours + " Hrs | " + outcome.status();
+        };
+    }
+
+    // Remarks written by CSV finalization
+    public static String finalizeRemarks(Outcome outcome, int hours) {
+        return switch (outcome) {
+            case SHEET_ABSENT -> "Absent For Today's Standup Call";
+            case SHEET_LEAVE -> "Finalized from CSV: Leave";
+            case SHEET_HALF_DAY -> "Finalized from CSV: Half Day";
+            case NO_LOGIN -> "No Login Found ⇒ Absent";
+            case FULL_DAY_TIME -> "Full Day Present — Time Condition Met";
+            case LATE_LOGIN -> "Late Login ⇒ HALF DAY";
+            default -> "Worked: " + hours + " Hrs ⇒ " + outcome.status();
+        };
+    }
+
+    // Remarks written by the 18:30 auto-logout
+    public static String autoLogoutRemarks(Outcome outcome) {
+        return outcome == Outcome.AUTO_UNDER_MIN_HOURS
+                ? "Auto Absent — Less than 5 Hours"
+                : "Auto Logout — Half Day (Forgot Logout)";
+    }
+}
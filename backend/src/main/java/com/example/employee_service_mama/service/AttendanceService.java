@@ -1,17 +1,25 @@
 package com.example.employee_service_mama.service;
 
+import com.example.employee_service_mama.dto.AttendanceGridRowDTO;
+import com.example.employee_service_mama.dto.AttendanceHistoryDTO;
+import com.example.employee_service_mama.dto.AttendanceHistoryPage;
+import com.example.employee_service_mama.dto.AttendanceSearchPage;
+import com.example.employee_service_mama.dto.AttendanceSummaryDTO;
+import com.example.employee_service_mama.dto.JobRunReport;
 import com.example.employee_service_mama.model.Attendance;
-import com.example.employee_service_mama.model.Users;
 import com.example.employee_service_mama.repository.AttendanceRepository;
-import com.example.employee_service_mama.repository.LeaveRequestsRepository;
 import com.example.employee_service_mama.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 @Service
@@ -20,82 +28,95 @@ public class AttendanceService {
 
     private final AttendanceRepository attendanceRepository;
     private final UserRepository userRepository;
-    private final LeaveRequestsRepository leaveRepository;
+    private final WebSocketService webSocketService;
+    private final AttendanceCalendarService calendarService;
+    private final SandwichPolicyService sandwichPolicyService;
+    private final AttendanceDayCache dayCache;
+    private final ApprovedLeaveIndex leaveIndex;
+    private final AttendanceSummaryService summaryService;
+    private final LiveAttendanceStats liveStats;
 
     private final LocalTime LOGIN_START = LocalTime.of(9, 0);
-    private final LocalTime FULL_PRESENT_LIMIT = LocalTime.of(9, 5);
-    private final LocalTime AUTO_LOGOUT_TIME = LocalTime.of(18, 30);
-    private final int FULL_DAY_HOURS = 9;
-    private final int MIN_HOURS = 5;
+
+    private final int HISTORY_PAGE_SIZE = 31;
+    private final int HISTORY_MAX_PAGE_SIZE = 100;
+    private final int ALL_MAX_ROWS = 1000;
+    private final LocalDate HISTORY_MIN_DATE = LocalDate.of(2000, 1, 1);
+    private final LocalDate HISTORY_MAX_DATE = LocalDate.of(9999, 12, 31);
 
     private boolean isWeekend(LocalDate date) {
         return date.getDayOfWeek().name().equals("SATURDAY") ||
                 date.getDayOfWeek().name().equals("SUNDAY");
     }
 
-    private long workedHours(LocalTime login, LocalTime logout) {
-        return Duration.between(login, logout).toHours();
-    }
-
     // LOGIN
-    // LOGIN (corrected to prevent duplicate entries)
-    public synchronized String login(Integer userId) {
-        Users user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User Not Found"));
-
+    // No global lock: the (user_id, date) unique constraint + ON CONFLICT DO NOTHING
+    // guarantees one row per user per day, across threads and backend instances.
+    // Leave / existing-row checks come from the day cache, so the happy path is one INSERT.
+    public String login(Integer userId) {
         LocalDate today = LocalDate.now();
-        LocalTime now = LocalTime.now();
-        boolean isOnLeave = leaveRepository.existsApprovedLeaveForDate(userId, today);
-        if (isOnLeave) {
+        LocalTime now = LocalTime.now().truncatedTo(ChronoUnit.SECONDS);
+        if (leaveIndex.isOnLeave(userId, today)) {
             return "You are on approved leave today — Login not allowed";
         }
         if (isWeekend(today)) return "Weekend — Login not allowed";
         if (now.isBefore(LOGIN_START)) return "Login not allowed before 9:00 AM";
 
+        Attendance existing = dayCache.get(userId);
+        if (existing == null) {
+            List<Object[]> inserted = attendanceRepository.insertLoginIfAbsent(
+                    userId, today, now, "PRESENT", "Login Recorded");
 
-        boolean exists = attendanceRepository.existsByUserIdAndDate(userId, today);
-
-        if (exists) {
-            Attendance att = attendanceRepository.findByUserIdAndDate(userId, today);
+            if (!inserted.isEmpty()) {
+                Object[] row = inserted.get(0);
+                dayCache.put(userId, Attendance.builder()
+                        .id(((Number) row[0]).intValue())
+                        .empid((String) row[1])
+                        .date(today)
+                        .loginTime(now)
+                        .status("PRESENT")
+                        .remarks("Login Recorded")
+                        .createdAt(OffsetDateTime.now())
+                        .build());
+                summaryService.onStatusChange(userId, today, null, "PRESENT", AttendanceSummaryService.isLate(now));
+                liveStats.onLogin();
+                return "Login Successful";
+            }
 
-            if (att.getLogoutTime() == null) {
+            // Nothing inserted: unknown user, or a row written elsewhere since the cache was filled
+            dayCache.evict(userId);
+            existing = dayCache.get(userId);
+            if (existing == null) {
+                if (!userRepository.existsById(userId)) throw new RuntimeException("User Not Found");
                 return "Already logged in today";
             }
-            return "You have already logged out today — cannot login again";
         }
 
-        Attendance attendance = Attendance.builder()
-                .user(user)
-                .empid(user.getEmpid())
-                .date(today)
-                .loginTime(now)
-                .status("PRESENT")
-                .remarks("Login Recorded")
-                .build();
-
-        try {
-            attendanceRepository.save(attendance);
-        } catch (Exception e) {
+        if (existing.getLogoutTime() == null) {
             return "Already logged in today";
         }
-
-        return "Login Successful";
+        return "You have already logged out today — cannot login again";
     }
 
     // LOGOUT Method
-    public synchronized String logout(Integer userId) {
+    // Closed with a conditional UPDATE (logout_time IS NULL), so concurrent logouts apply once.
+    public String logout(Integer userId) {
         LocalDate today = LocalDate.now();
-        LocalTime now = LocalTime.now();
+        LocalTime now = LocalTime.now().truncatedTo(ChronoUnit.SECONDS);
 
         if (isWeekend(today)) return "Weekend — Logout not needed";
 
-        boolean isOnLeave = leaveRepository.existsApprovedLeaveForDate(userId, today);
-        if (isOnLeave) {
+        if (leaveIndex.isOnLeave(userId, today)) {
             return "You are on approved leave today — Logout not needed";
         }
-        Attendance att = attendanceRepository.findByUserIdAndDate(userId, today);
-
+        Attendance att = dayCache.get(userId);
         if (att == null) {
+            // Miss: the login may have been recorded by another instance
+            dayCache.evict(userId);
+            att = dayCache.get(userId);
+        }
+
+        if (att == null || att.getLoginTime() == null) {
             return "You did not login today";
         }
 
@@ -103,36 +124,32 @@ public class AttendanceService {
             return "You have already logged out today";
         }
 
-        att.setLogoutTime(now);
-
-        long hours = workedHours(att.getLoginTime(), now);
-
-        LocalTime login = att.getLoginTime();
-
-        // Special Full Day Rule
-        // Login between 09:00 - 09:05  AND Logout after 18:00
-        if (!login.isAfter(FULL_PRESENT_LIMIT) && !now.isBefore(LocalTime.of(18, 0))) {
-            att.setStatus("PRESENT");
-            att.setRemarks("Full Day Present — Time Condition Met");
-        } else {
-            // 🔹 Default Logic
-            if (hours < MIN_HOURS) {
-                att.setStatus("ABSENT");
-                att.setRemarks("Logout — Worked: " + hours + " Hrs | ABSENT");
-            } else {
-                if (login.isAfter(FULL_PRESENT_LIMIT)) {
-                    att.setStatus("HALF_DAY");
-                    att.setRemarks("Logout — Late Login | HALF DAY");
-                } else {
-                    String status = (hours >= FULL_DAY_HOURS) ? "PRESENT" : "HALF_DAY";
-                    att.setStatus(status);
-                    att.setRemarks("Logout — Worked: " + hours + " Hrs | " + status);
-                }
-            }
+        // Full-day time rule, 5 h minimum, 09:05 late cutoff, 9 h full day → AttendanceRules
+        int loginSec = AttendanceRules.seconds(att.getLoginTime());
+        int logoutSec = AttendanceRules.seconds(now);
+        AttendanceRules.Outcome outcome = AttendanceRules.evaluateDay(loginSec, logoutSec);
+        String status = outcome.status();
+        String remarks = AttendanceRules.logoutRemarks(outcome, AttendanceRules.workedHours(loginSec, logoutSec));
+
+        int closed = attendanceRepository.closeOpenAttendance(
+                userId, today, now, status, remarks, OffsetDateTime.now());
+        if (closed == 0) {
+            dayCache.evict(userId);
+            return "You have already logged out today";
         }
 
-        attendanceRepository.save(att);
-        return "Logout Updated: " + att.getStatus();
+        String statusBefore = att.getStatus();
+        att.setLogoutTime(now);
+        att.setStatus(status);
+        att.setRemarks(remarks);
+        dayCache.put(userId, att);
+        summaryService.onStatusChange(userId, today, statusBefore, status, AttendanceSummaryService.isLate(att.getLoginTime()));
+        liveStats.onLogout(status);
+
+        if ("ABSENT".equals(status)) {
+            sandwichPolicyService.onAttendanceWritten(List.of(userId), today);
+        }
+        return "Logout Updated: " + status;
     }
 
 
@@ -141,23 +158,24 @@ public class AttendanceService {
     @Scheduled(cron = "0 5 13 * * MON-FRI")
     public void autoAbsentAfter1PM() {
         LocalDate today = LocalDate.now();
-        if (isWeekend(today)) return;
+        if (isWeekend(today) || calendarService.isHoliday(today)) return;
 
-        List<Users> users = userRepository.findAll();
-        for (Users user : users) {
-            Attendance att = attendanceRepository.findByUserIdAndDate(user.getId(), today);
+        JobRunReport report = autoAbsentBulk(today);
+        System.out.println("✔ " + report);
+    }
 
-            if (att == null) {
-                Attendance a = Attendance.builder()
-                        .user(user)
-                        .empid(user.getEmpid())
-                        .date(today)
-                        .status("ABSENT")
-                        .remarks("Auto Absent — No Login Before 1 PM")
-                        .build();
-                attendanceRepository.save(a);
-            }
-        }
+    // Single anti-join INSERT instead of one lookup + save per employee
+    public JobRunReport autoAbsentBulk(LocalDate date) {
+        long start = System.nanoTime();
+
+        List<Integer> marked = attendanceRepository.insertMissingAbsent(date, "Auto Absent — No Login Before 1 PM");
+        dayCache.evict(marked);
+        summaryService.refresh(marked, date);
+        sandwichPolicyService.onAttendanceWritten(marked, date);
+        if (date.equals(LocalDate.now())) liveStats.reloadLive();
+
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
+        return new JobRunReport("Auto Absent", date, marked.size(), tookMs);
     }
 
     // 6:30 PM AUTO LOGOUT
@@ -166,135 +184,180 @@ public class AttendanceService {
         LocalDate today = LocalDate.now();
         if (isWeekend(today)) return;
 
-        List<Users> users = userRepository.findAll();
-        for (Users user : users) {
-            Attendance att = attendanceRepository.findByUserIdAndDate(user.getId(), today);
-
-            if (att != null && att.getLoginTime() != null && att.getLogoutTime() == null) {
-
-                att.setLogoutTime(AUTO_LOGOUT_TIME);
-                long hours = workedHours(att.getLoginTime(), AUTO_LOGOUT_TIME);
-
-                if (hours < MIN_HOURS) {
-                    att.setStatus("ABSENT");
-                    att.setRemarks("Auto Absent — Less than 5 Hours");
-                } else {
-                    att.setStatus(att.getLoginTime().isAfter(FULL_PRESENT_LIMIT)
-                            ? "HALF_DAY"
-                            : "HALF_DAY");
-                    att.setRemarks("Auto Logout — Half Day (Forgot Logout)");
-                }
+        long start = System.nanoTime();
+        List<Integer> loggedOut = autoLogoutBulk(today);
+        long tookMs = (System.nanoTime() - start) / 1_000_000;
 
-                attendanceRepository.save(att);
-            }
-        }
+        System.out.println("✔ " + new JobRunReport("Auto Logout", today, loggedOut.size(), tookMs));
     }
 
-    // WEEKEND MARKING
-    @Scheduled(cron = "0 1 0 * * *") // 00:01 AM
-    public void markWeekendDays() {
-        LocalDate today = LocalDate.now();
-        if (!isWeekend(today)) return;
-
-        List<Users> users = userRepository.findAll();
-        for (Users user : users) {
-            Attendance att = attendanceRepository.findByUserIdAndDate(user.getId(), today);
-
-            if (att == null) {
-                att = Attendance.builder()
-                        .user(user)
-                        .empid(user.getEmpid())
-                        .date(today)
-                        .status("WEEKEND")
-                        .remarks("Auto Weekend Marked")
-                        .build();
-                attendanceRepository.save(att);
-            }
+    // One UPDATE for all open rows, then notify only the affected users
+    public List<Integer> autoLogoutBulk(LocalDate date) {
+        // Same thresholds / remarks as AttendanceRules.evaluateAutoLogout, applied in SQL
+        List<Integer> userIds = attendanceRepository.bulkAutoLogout(
+                date,
+                AttendanceRules.AUTO_LOGOUT_TIME,
+                AttendanceRules.MIN_HOURS,
+                AttendanceRules.autoLogoutRemarks(AttendanceRules.Outcome.AUTO_UNDER_MIN_HOURS),
+                AttendanceRules.autoLogoutRemarks(AttendanceRules.Outcome.AUTO_HALF_DAY)
+        );
+        dayCache.evict(userIds);
+        summaryService.refresh(userIds, date);
+
+        sandwichPolicyService.onAttendanceWritten(userIds, date);
+        if (date.equals(LocalDate.now())) liveStats.reloadLive();
+
+        String message = "{\"event\":\"AUTO_LOGOUT\",\"date\":\"" + date + "\"}";
+        for (Integer userId : userIds) {
+            webSocketService.sendMessage("/topic/attendance/" + userId, message);
         }
+        return userIds;
     }
 
-    // SANDWICH POLICY — Friday or Monday Absent → Sat & Sun Absent
-    @Scheduled(cron = "0 10 0 * * *") // 12:10 AM Daily
-    public void sandwichPolicyFix() {
-        LocalDate today = LocalDate.now();
-        List<Users> users = userRepository.findAll();
-
-        for (Users user : users) {
-
-            LocalDate friday = today.with(java.time.DayOfWeek.FRIDAY);
-            if (friday.isAfter(today)) friday = friday.minusWeeks(1);
+    // WEEKEND CLEANUP — weekend / holiday rows are no longer written per employee,
+    // AttendanceCalendarService synthesizes them when history is read
+    public int purgeMaterializedWeekendRows() {
+        return attendanceRepository.deleteMaterializedWeekendRows();
+    }
 
-            LocalDate saturday = friday.plusDays(1);
-            LocalDate sunday = friday.plusDays(2);
-            LocalDate monday = friday.plusDays(3);
+    public List<Attendance> getAllAttendance(String search, String date) {
+        String safeDate = (date == null || date.isBlank()) ? null : date;
 
-            Attendance friAtt = attendanceRepository.findByUserIdAndDate(user.getId(), friday);
-            Attendance monAtt = attendanceRepository.findByUserIdAndDate(user.getId(), monday);
+        String searchText = (search == null || search.isBlank()) ? null : search;
 
-            boolean isFridayAbsent = friAtt != null && "ABSENT".equals(friAtt.getStatus());
-            boolean isMondayAbsent = monAtt != null && "ABSENT".equals(monAtt.getStatus());
+        // Legacy list endpoint → newest rows only, capped (the full table is served by /search pages)
+        return attendanceRepository.findAllFiltered(searchText, safeDate, PageRequest.of(0, ALL_MAX_ROWS));
+    }
 
-            // Apply sandwich for both cases
-            if (isFridayAbsent || isMondayAbsent) {
-                markAbsentOrUpdate(user, saturday);
-                markAbsentOrUpdate(user, sunday);
-            }
+    // HR GRID SEARCH → keyset pages instead of the whole table; name / empid match via pg_trgm indexes
+    public AttendanceSearchPage searchAttendance(String search, LocalDate date, LocalDate from, LocalDate to,
+                                                 LocalDate beforeDate, Integer beforeId,
+                                                 Integer size, boolean withTotal) {
+        int limit = (size == null || size < 1) ? 50 : Math.min(size, HISTORY_MAX_PAGE_SIZE);
+
+        String pattern = null;
+        if (search != null && !search.isBlank()) {
+            String escaped = search.trim().toLowerCase()
+                    .replace("!", "!!")
+                    .replace("%", "!%")
+                    .replace("_", "!_");
+            pattern = "%" + escaped + "%";
         }
-    }
 
-    private void markAbsentOrUpdate(Users user, LocalDate date) {
-        Attendance att = attendanceRepository.findByUserIdAndDate(user.getId(), date);
+        LocalDate rangeFrom = (date != null) ? date : (from != null ? from : HISTORY_MIN_DATE);
+        LocalDate rangeTo = (date != null) ? date : (to != null ? to : HISTORY_MAX_DATE);
 
-        if (att == null) {
-            att = Attendance.builder()
-                    .user(user)
-                    .empid(user.getEmpid())
-                    .date(date)
-                    .remarks("Sandwich Applied")
-                    .build();
-        } else {
-            att.setRemarks("Sandwich Applied");
-        }
+        // First page: a cursor past every row keeps it a single query shape
+        LocalDate cursorDate = (beforeDate == null || beforeId == null) ? HISTORY_MAX_DATE : beforeDate;
+        Integer cursorId = (beforeDate == null || beforeId == null) ? Integer.MAX_VALUE : beforeId;
 
-        att.setStatus("ABSENT");
-        attendanceRepository.save(att);
-    }
-    public List<Attendance> getAllAttendance(String search, String date) {
-        String safeDate = (date == null || date.isBlank()) ? null : date;
+        List<AttendanceGridRowDTO> rows = attendanceRepository.searchGrid(
+                pattern, rangeFrom, rangeTo, cursorDate, cursorId, PageRequest.of(0, limit + 1));
 
-        String searchText = (search == null || search.isBlank()) ? null : search;
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+        AttendanceGridRowDTO last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
 
-        if (safeDate == null && searchText == null)
-            return attendanceRepository.findAll();
+        Long total = withTotal ? attendanceRepository.countGrid(pattern, rangeFrom, rangeTo) : null;
 
-        return attendanceRepository.findAllFiltered(searchText, safeDate);
+        return new AttendanceSearchPage(
+                rows,
+                total,
+                hasMore,
+                hasMore ? last.getDate() : null,
+                hasMore ? last.getId() : null
+        );
     }
+
     // REPORTS
     public List<Attendance> getAttendanceByUserId(Integer userId) {
-        return attendanceRepository.findAttendanceHistory(userId);
+        return calendarService.withCalendarDays(attendanceRepository.findAttendanceHistory(userId));
     }
 
     public Attendance getTodayAttendance(Integer userId) {
-        return attendanceRepository.findByUserIdAndDate(userId, LocalDate.now());
+        return dayCache.get(userId);
+    }
+
+    // Counters come from attendance_summary instead of a COUNT over the whole history
+    public AttendanceSummaryDTO summary(Integer userId, Integer year, Integer month) {
+        return summaryService.getSummary(userId, year, month);
     }
 
     public Integer presentdays(Integer userId) {
-        return attendanceRepository.findByPresentDays(userId);
+        return (int) summaryService.getSummary(userId, null, null).getPresentDays();
     }
 
     public Integer absentdays(Integer userId) {
-        return attendanceRepository.findByAbsentDays(userId);
+        return (int) summaryService.getSummary(userId, null, null).getAbsentDays();
     }
 
     public Integer halfdays(Integer userId) {
-        return attendanceRepository.findByHalfDays(userId);
+        return (int) summaryService.getSummary(userId, null, null).getHalfDays();
     }
 
     public Integer late(Integer userId) {
-        return attendanceRepository.findLateLoginDays(userId, FULL_PRESENT_LIMIT);
+        return (int) summaryService.getSummary(userId, null, null).getLateDays();
     }
 
     public List<Attendance> getAttendancehistory(Integer userId) {
-        return attendanceRepository.findAttendanceHistory(userId);
+        return calendarService.withCalendarDays(attendanceRepository.findAttendanceHistory(userId));
+    }
+
+    // HISTORY PAGE → keyset on (date DESC, id DESC), optional year / month range.
+    // Weekend / holiday rows are synthesized only for the date window this page covers.
+    public AttendanceHistoryPage getHistoryPage(Integer userId, Integer year, Integer month,
+                                                LocalDate beforeDate, Integer beforeId, Integer size) {
+        int limit = (size == null || size < 1) ? HISTORY_PAGE_SIZE : Math.min(size, HISTORY_MAX_PAGE_SIZE);
+        boolean ranged = year != null || month != null;
+
+        LocalDate from = HISTORY_MIN_DATE;
+        LocalDate to = HISTORY_MAX_DATE;
+        if (ranged) {
+            int y = (year != null) ? year : LocalDate.now().getYear();
+            if (month != null) {
+                YearMonth ym = YearMonth.of(y, month);
+                from = ym.atDay(1);
+                to = ym.atEndOfMonth();
+            } else {
+                from = LocalDate.of(y, 1, 1);
+                to = LocalDate.of(y, 12, 31);
+            }
+        }
+
+        Pageable fetch = PageRequest.of(0, limit + 1);
+        List<AttendanceHistoryDTO> rows = (beforeDate == null || beforeId == null)
+                ? attendanceRepository.findHistoryPage(userId, from, to, fetch)
+                : attendanceRepository.findHistoryPageBefore(userId, from, to, beforeDate, beforeId, fetch);
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+        AttendanceHistoryDTO last = rows.isEmpty() ? null : rows.get(rows.size() - 1);
+
+        // Calendar window: from the cursor (or range end / today) down to the last row,
+        // or to the range start once the range is exhausted
+        LocalDate windowTo = (beforeDate != null) ? beforeDate.minusDays(1) : to;
+        if (windowTo.isAfter(LocalDate.now())) windowTo = LocalDate.now();
+        LocalDate windowFrom = (hasMore || !ranged) ? (last == null ? null : last.getDate()) : from;
+
+        List<AttendanceHistoryDTO> items = calendarService.withCalendarDaysDto(rows, windowFrom, windowTo);
+
+        return new AttendanceHistoryPage(
+                items,
+                hasMore,
+                hasMore ? last.getDate() : null,
+                hasMore ? last.getId() : null
+        );
+    }
+
+    // HISTORY MONTH → one calendar month, stored + synthesized rows (cacheable once the month is over)
+    public List<AttendanceHistoryDTO> getHistoryMonth(Integer userId, int year, int month) {
+        YearMonth ym = YearMonth.of(year, month);
+        LocalDate from = ym.atDay(1);
+        LocalDate to = ym.atEndOfMonth();
+
+        List<AttendanceHistoryDTO> rows = attendanceRepository.findHistoryPage(userId, from, to, Pageable.unpaged());
+
+        LocalDate today = LocalDate.now();
+        return calendarService.withCalendarDaysDto(rows, from, to.isAfter(today) ? today : to);
     }
 }
\ No newline at end of file
@@ -0,0 +1,214 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.dto.AttendanceSummaryDTO;
+import com.example.employee_service_mama.model.AttendanceSummary;
+import com.example.employee_service_mama.repository.AttendanceSummaryRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dashboard counters (present / absent / half-day / late) per user and month.
+//  login / logout → onStatusChange(): +1 / -1 deltas queued after commit and flushed
+//                   as one batched upsert every 2 s, so the click itself is a single write
+//  bulk jobs      → refresh(): the touched user-months are re-aggregated (empty months removed);
+//                   re-aggregation wins over queued deltas for the same user-month, and the
+//                   daily finalization refresh heals anything lost on a crash between flushes
+@Service
+@RequiredArgsConstructor
+public class AttendanceSummaryService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final LocalTime LATE_AFTER = LocalTime.of(9, 5);
+
+    // Delta indexes in int[]
+    private static final int PRESENT = 0, ABSENT = 1, HALF_DAY = 2, LATE = 3;
+
+    private static final String DELTA_SQL = """
+            INSERT INTO attendance_summary
+                (user_id, year, month, present_days, absent_days, half_days, late_days, updated_at)
+            VALUES (?, ?, ?, GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0), GREATEST(?, 0), NOW())
+            ON CONFLICT (user_id, year, month) DO UPDATE SET
+                present_days = GREATEST(attendance_summary.present_days + ?, 0),
+                absent_days  = GREATEST(attendance_summary.absent_days + ?, 0),
+                half_days    = GREATEST(attendance_summary.half_days + ?, 0),
+                late_days    = GREATEST(attendance_summary.late_days + ?, 0),
+                updated_at   = NOW()
+            """;
+
+    private record MonthKey(Integer userId, int year, int month) {
+        static MonthKey of(Integer userId, LocalDate date) {
+            return new MonthKey(userId, date.getYear(), date.getMonthValue());
+        }
+    }
+
+    private final AttendanceSummaryRepository summaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentHashMap<MonthKey, int[]> pending = new ConcurrentHashMap<>();
+
+    // First start with an empty table → build the counters from history once
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (summaryRepository.count() > 0) return;
+
+        int rows = summaryRepository.rebuildAll(LATE_AFTER);
+        System.out.println("✔ Attendance summary backfilled — " + rows + " user-months");
+    }
+
+    // Row status changed from oldStatus (null = no row) to newStatus (null = row removed);
+    // late tells whether the row's login is after the late cutoff (unchanged by logout)
+    public void onStatusChange(Integer userId, LocalDate date, String oldStatus, String newStatus, boolean late) {
+        int[] delta = new int[4];
+        boolean created = oldStatus == null && newStatus != null;
+        boolean removed = oldStatus != null && newStatus == null;
+
+        if (!Objects.equals(oldStatus, newStatus)) {
+            bump(delta, oldStatus, -1);
+            bump(delta, newStatus, +1);
+        }
+        if (late && created) delta[LATE] = 1;
+        if (late && removed) delta[LATE] = -1;
+        if (delta[PRESENT] == 0 && delta[ABSENT] == 0 && delta[HALF_DAY] == 0 && delta[LATE] == 0) return;
+
+        MonthKey key = MonthKey.of(userId, date);
+        afterCommit(() -> pending.merge(key, delta, AttendanceSummaryService::add));
+    }
+
+    public static boolean isLate(LocalTime loginTime) {
+        return loginTime != null && loginTime.isAfter(LATE_AFTER);
+    }
+
+    // Batched upsert of the queued deltas; a failed batch is merged back for the next run
+    @Scheduled(fixedDelay = 2000)
+    @PreDestroy
+    public void flush() {
+        if (pending.isEmpty()) return;
+
+        Map<MonthKey, int[]> drained = new HashMap<>();
+        for (MonthKey key : Set.copyOf(pending.keySet())) {
+            int[] delta = pending.remove(key);
+            if (delta != null) drained.put(key, delta);
+        }
+
+        List<Object[]> batch = new ArrayList<>(drained.size());
+        drained.forEach((k, d) -> batch.add(new Object[]{
+                k.userId(), k.year(), k.month(),
+                d[PRESENT], d[ABSENT], d[HALF_DAY], d[LATE],
+                d[PRESENT], d[ABSENT], d[HALF_DAY], d[LATE]
+        }));
+
+        try {
+            jdbcTemplate.batchUpdate(DELTA_SQL, batch);
+        } catch (Exception e) {
+            drained.forEach((k, d) -> pending.merge(k, d, AttendanceSummaryService::add));
+            System.out.println("⚠ Attendance summary delta flush failed → " + e.getMessage());
+        }
+    }
+
+    public void refresh(Integer userId, LocalDate date) {
+        refresh(List.of(userId), date);
+    }
+
+    public void refresh(Collection<Integer> userIds, LocalDate date) {
+        if (userIds == null || userIds.isEmpty()) return;
+
+        LocalDate monthStart = date.withDayOfMonth(1);
+        refreshRange(userIds, monthStart, monthStart.plusMonths(1));
+    }
+
+    public AttendanceSummaryDTO getSummary(Integer userId, Integer year, Integer month) {
+        if (month != null && year == null) year = LocalDate.now().getYear();
+
+        List<AttendanceSummary> rows = load(userId, year, month);
+
+        AttendanceSummaryDTO dto = new AttendanceSummaryDTO(userId, year, month, 0, 0, 0, 0);
+        for (AttendanceSummary s : rows) {
+            dto.setPresentDays(dto.getPresentDays() + s.getPresentDays());
+            dto.setAbsentDays(dto.getAbsentDays() + s.getAbsentDays());
+            dto.setHalfDays(dto.getHalfDays() + s.getHalfDays());
+            dto.setLateDays(dto.getLateDays() + s.getLateDays());
+        }
+
+        // Deltas not flushed yet
+        for (Map.Entry<MonthKey, int[]> e : pending.entrySet()) {
+            MonthKey k = e.getKey();
+            if (!k.userId().equals(userId)) continue;
+            if (year != null && k.year() != year) continue;
+            if (month != null && k.month() != month) continue;
+
+            int[] d = e.getValue();
+            dto.setPresentDays(dto.getPresentDays() + d[PRESENT]);
+            dto.setAbsentDays(dto.getAbsentDays() + d[ABSENT]);
+            dto.setHalfDays(dto.getHalfDays() + d[HALF_DAY]);
+            dto.setLateDays(dto.getLateDays() + d[LATE]);
+        }
+        return dto;
+    }
+
+    private List<AttendanceSummary> load(Integer userId, Integer year, Integer month) {
+        if (year != null && month != null) return summaryRepository.findByUserIdAndYearAndMonth(userId, year, month);
+        if (year != null) return summaryRepository.findByUserIdAndYear(userId, year);
+        return summaryRepository.findByUserId(userId);
+    }
+
+    private void refreshRange(Collection<Integer> userIds, LocalDate from, LocalDate to) {
+        // The re-aggregation already counts every committed row these deltas describe
+        Set<Integer> users = new HashSet<>(userIds);
+        pending.keySet().removeIf(k -> users.contains(k.userId())
+                && !monthStart(k).isBefore(from) && monthStart(k).isBefore(to));
+
+        List<Integer> ids = new ArrayList<>(userIds);
+        for (int i = 0; i < ids.size(); i += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(i, Math.min(i + CHUNK_SIZE, ids.size()));
+            summaryRepository.refresh(chunk, from, to, LATE_AFTER);
+            summaryRepository.deleteEmptyMonths(chunk, from, to);
+        }
+    }
+
+    private static LocalDate monthStart(MonthKey k) {
+        return LocalDate.of(k.year(), k.month(), 1);
+    }
+
+    private static void bump(int[] delta, String status, int by) {
+        if ("PRESENT".equals(status)) delta[PRESENT] += by;
+        else if ("ABSENT".equals(status)) delta[ABSENT] += by;
+        else if ("HALF_DAY".equals(status)) delta[HALF_DAY] += by;
+    }
+
+    private static int[] add(int[] a, int[] b) {
+        int[] sum = new int[a.length];
+        for (int i = 0; i < a.length; i++) sum[i] = a[i] + b[i];
+        return sum;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -18,11 +18,14 @@ public class LeaveRequestsService {
     private final LeaveRequestsRepository leaveRepo;
     private final UserRepository userRepo;
     private final EmailService emailService;
+    private final ApprovedLeaveIndex leaveIndex;
 
-    public LeaveRequestsService(LeaveRequestsRepository leaveRepo, UserRepository userRepo,EmailService emailService) {
+    public LeaveRequestsService(LeaveRequestsRepository leaveRepo, UserRepository userRepo,EmailService emailService,
+                                ApprovedLeaveIndex leaveIndex) {
         this.leaveRepo = leaveRepo;
         this.userRepo = userRepo;
         this.emailService= emailService;
+        this.leaveIndex = leaveIndex;
     }
 
     public LeaveRequest applyLeave(Integer userId, String start, String end, String reason) {
@@ -64,6 +67,7 @@ public class LeaveRequestsService {
         leave.setEmpid(user.getEmpid());
 
         leaveRepo.save(leave);
+        leaveIndex.onApproved(leave);
 
         // 📧 Send approval email
         String subject = "Leave Request Approved";
@@ -93,6 +97,7 @@ public class LeaveRequestsService {
         leave.setEmpid(user.getEmpid());
 
         leaveRepo.save(leave);
+        leaveIndex.onRejected(leave);
 
         // 📧 Send rejection email
         String subject = "Leave Request Rejected";
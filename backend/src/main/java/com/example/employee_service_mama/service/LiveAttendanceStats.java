@@ -0,0 +1,202 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.model.AttendanceDailySummary;
+import com.example.employee_service_mama.repository.AttendanceDailySummaryRepository;
+import com.example.employee_service_mama.repository.AttendanceRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// Today's attendance counters in memory, pushed to /topic/attendance/stats so dashboards stop polling.
+//  live  → attendance table (login / logout), bumped on every login / logout on this instance
+//  sheet → CSV sheet (attendance_records), reloaded from attendance_daily_summary after each write
+// Both are reseeded from the database at midnight and every 10 minutes, which also picks up
+// writes made by other instances. A reseed builds a new counter set and swaps it in, so readers never
+// see a half-reset map; an event racing the count query may be missed or counted twice, until the next reseed.
+@Service
+@RequiredArgsConstructor
+public class LiveAttendanceStats {
+
+    public static final String TOPIC = "/topic/attendance/stats";
+
+    private static final List<String> LIVE_KEYS = List.of("loggedIn", "loggedOut", "present", "absent", "halfDay");
+    private static final List<String> SHEET_KEYS = List.of("total", "present", "absent", "leave", "late", "halfDay");
+
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceDailySummaryRepository dailySummaryRepository;
+    private final WebSocketService webSocketService;
+    private final ObjectMapper objectMapper;
+
+    private volatile Map<String, LongAdder> live = counters(LIVE_KEYS);
+    private volatile Map<String, LongAdder> sheet = counters(SHEET_KEYS);
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+    private volatile LocalDate day;
+    private volatile boolean sheetStale;
+
+    // ---------------- RESEED ----------------
+    @Scheduled(cron = "0 0 0 * * *") // Midnight
+    public synchronized void reload() {
+        day = LocalDate.now();
+        reloadLive();
+        reloadSheet();
+    }
+
+    @Scheduled(fixedDelay = 600_000, initialDelay = 600_000)
+    public void resync() {
+        reload();
+    }
+
+    // Recount the attendance table for today (after bulk jobs / finalization)
+    public void reloadLive() {
+        long loggedIn = 0, loggedOut = 0, present = 0, absent = 0, halfDay = 0;
+
+        for (Object[] row : attendanceRepository.countByStatusForDate(LocalDate.now())) {
+            String status = (String) row[0];
+            long count = ((Number) row[1]).longValue();
+            loggedIn += ((Number) row[2]).longValue();
+            loggedOut += ((Number) row[3]).longValue();
+
+            if ("PRESENT".equals(status)) present += count;
+            else if ("ABSENT".equals(status)) absent += count;
+            else if ("HALF_DAY".equals(status)) halfDay += count;
+        }
+
+        Map<String, LongAdder> next = counters(LIVE_KEYS);
+        next.get("loggedIn").add(loggedIn);
+        next.get("loggedOut").add(loggedOut);
+        next.get("present").add(present);
+        next.get("absent").add(absent);
+        next.get("halfDay").add(halfDay);
+        live = next;
+        dirty.set(true);
+    }
+
+    // Copy today's row of attendance_daily_summary
+    public void reloadSheet() {
+        sheetStale = false;
+        AttendanceDailySummary s = dailySummaryRepository.findByDate(LocalDate.now()).orElse(null);
+
+        Map<String, LongAdder> next = counters(SHEET_KEYS);
+        if (s != null) {
+            next.get("total").add(s.getTotal());
+            next.get("present").add(s.getPresent());
+            next.get("absent").add(s.getAbsent());
+            next.get("leave").add(s.getLeave());
+            next.get("late").add(s.getLate());
+            next.get("halfDay").add(s.getHalfDay());
+        }
+        sheet = next;
+        dirty.set(true);
+    }
+
+    // ---------------- EVENTS ----------------
+    public void onLogin() {
+        ensureToday();
+        Map<String, LongAdder> counters = live;
+        counters.get("loggedIn").increment();
+        counters.get("present").increment();
+        dirty.set(true);
+    }
+
+    // Login rows start as PRESENT; logout may move them to ABSENT / HALF_DAY
+    public void onLogout(String status) {
+        ensureToday();
+        Map<String, LongAdder> counters = live;
+        counters.get("loggedOut").increment();
+
+        String key = statusKey(status);
+        if (!"present".equals(key)) {
+            counters.get("present").decrement();
+            if (key != null) counters.get(key).increment();
+        }
+        dirty.set(true);
+    }
+
+    // Sheet rows for the date changed; marked stale once the writer's transaction commits,
+    // the next read / broadcast reloads it
+    public void onSheetWritten(LocalDate date) {
+        if (!LocalDate.now().equals(date)) return;
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    sheetStale = true;
+                }
+            });
+        } else {
+            sheetStale = true;
+        }
+    }
+
+    // ---------------- READ ----------------
+    public Map<String, Long> sheetCounts() {
+        ensureToday();
+        return snapshot(sheet);
+    }
+
+    public long sheetPresent() {
+        ensureToday();
+        return sheet.get("present").sum();
+    }
+
+    // Pushed only when something changed since the last tick
+    @Scheduled(fixedRate = 5000)
+    public void broadcast() {
+        ensureToday();
+        if (!dirty.getAndSet(false)) return;
+
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("date", day.toString());
+        payload.put("live", snapshot(live));
+        payload.put("sheet", snapshot(sheet));
+
+        try {
+            webSocketService.sendMessage(TOPIC, objectMapper.writeValueAsString(payload));
+        } catch (Exception e) {
+            dirty.set(true);
+            System.out.println("⚠ Attendance stats broadcast failed → " + e.getMessage());
+        }
+    }
+
+    private void ensureToday() {
+        if (!LocalDate.now().equals(day)) {
+            synchronized (this) {
+                if (!LocalDate.now().equals(day)) reload();
+            }
+        }
+        if (sheetStale) reloadSheet();
+    }
+
+    private static String statusKey(String status) {
+        if (status == null) return null;
+        return switch (status) {
+            case "PRESENT" -> "present";
+            case "ABSENT" -> "absent";
+            case "HALF_DAY" -> "halfDay";
+            default -> null;
+        };
+    }
+
+    private static Map<String, LongAdder> counters(List<String> keys) {
+        Map<String, LongAdder> map = new LinkedHashMap<>();
+        keys.forEach(k -> map.put(k, new LongAdder()));
+        return map;
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        Map<String, Long> values = new LinkedHashMap<>();
+        counters.forEach((k, v) -> values.put(k, v.sum()));
+        return values;
+    }
+}
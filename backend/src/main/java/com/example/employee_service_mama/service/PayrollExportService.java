@@ -0,0 +1,147 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.dto.PayrollPage;
+import com.example.employee_service_mama.dto.PayrollRowDTO;
+import com.example.employee_service_mama.repository.WalletRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Payroll listing for one salary cycle (active cycles when no cycleStart is given):
+//  page   → keyset on wallet id, bounded page size
+//  export → CSV / JSON-lines written row by row from a forward-only cursor, never buffered in the heap
+@Service
+@RequiredArgsConstructor
+public class PayrollExportService {
+
+    public static final int PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String[] COLUMNS = {
+            "walletId", "userId", "empid", "fullName", "department",
+            "monthlySalary", "dailyRate", "currentMonthEarned", "deduction", "cycleStart", "cycleEnd"
+    };
+
+    private static final String EXPORT_SQL = """
+            SELECT w.id, w.user_id, w.empid, u.full_name, u.role,
+                   w.monthly_salary, w.daily_rate, w.current_month_earned, COALESCE(w.deduction, 0) AS deduction,
+                   w.cycle_start, w.cycle_end
+            FROM salary w
+            JOIN users u ON u.id = w.user_id
+            """;
+    private static final String ACTIVE_FILTER = "WHERE w.cycle_end IS NULL\n";
+    private static final String CYCLE_FILTER = "WHERE w.cycle_start = ?\n";
+    private static final String ORDER = "ORDER BY w.id";
+
+    private final WalletRepository walletRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    // ---------------- PAGE ----------------
+    public PayrollPage page(LocalDate cycleStart, Integer afterId, Integer size) {
+        int limit = (size == null || size < 1) ? PAGE_SIZE : Math.min(size, MAX_PAGE_SIZE);
+        int cursor = (afterId == null) ? 0 : afterId;
+        PageRequest window = PageRequest.of(0, limit + 1);
+
+        List<PayrollRowDTO> rows = (cycleStart == null)
+                ? walletRepository.findActivePayrollPage(cursor, window)
+                : walletRepository.findCyclePayrollPage(cycleStart, cursor, window);
+
+        boolean hasMore = rows.size() > limit;
+        if (hasMore) rows = rows.subList(0, limit);
+
+        return new PayrollPage(rows, hasMore, hasMore ? rows.get(rows.size() - 1).getWalletId() : null);
+    }
+
+    // ---------------- EXPORT ----------------
+    // format: csv (default) or jsonl
+    public void export(LocalDate cycleStart, String format, OutputStream out) throws IOException {
+        boolean jsonl = "jsonl".equalsIgnoreCase(format);
+        String sql = EXPORT_SQL + (cycleStart == null ? ACTIVE_FILTER : CYCLE_FILTER) + ORDER;
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (!jsonl) writer.write(String.join(",", COLUMNS) + "\n");
+
+        // PostgreSQL only honours the fetch size with autocommit off → read-only transaction
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        readOnly.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setFetchSize(FETCH_SIZE);
+            if (cycleStart != null) ps.setObject(1, cycleStart);
+            return ps;
+        }, rs -> {
+            Object[] values = {
+                    rs.getInt("id"),
+                    rs.getInt("user_id"),
+                    rs.getString("empid"),
+                    rs.getString("full_name"),
+                    rs.getString("role"),
+                    rs.getDouble("monthly_salary"),
+                    rs.getDouble("daily_rate"),
+                    rs.getDouble("current_month_earned"),
+                    rs.getDouble("deduction"),
+                    rs.getObject("cycle_start", LocalDate.class),
+                    rs.getObject("cycle_end", LocalDate.class)
+            };
+            try {
+                writer.write(jsonl ? jsonLine(values) : csvLine(values));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // client went away → abort the cursor
+            }
+        }));
+
+        writer.flush();
+    }
+
+    private String jsonLine(Object[] values) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < COLUMNS.length; i++) {
+            row.put(COLUMNS[i], values[i] instanceof LocalDate d ? d.toString() : values[i]);
+        }
+        return objectMapper.writeValueAsString(row) + "\n";
+    }
+
+    private static String csvLine(Object[] values) {
+        StringBuilder line = new StringBuilder(128);
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) line.append(',');
+            if (values[i] instanceof String text) line.append(csvField(neutralizeFormula(text)));
+            else if (values[i] != null) line.append(csvField(values[i].toString()));
+        }
+        return line.append('\n').toString();
+    }
+
+    // Text starting like a formula (=, +, -, @, tab, CR) is opened by spreadsheets as one → prefix with '
+    private static String neutralizeFormula(String value) {
+        if (value.isEmpty() || "=+-@\t\r".indexOf(value.charAt(0)) < 0) return value;
+        return "'" + value;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
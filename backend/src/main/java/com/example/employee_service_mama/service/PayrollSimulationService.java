@@ -0,0 +1,256 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.dto.PayrollPolicy;
+import com.example.employee_service_mama.dto.PayrollSimulationRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// What-if payroll for one salary cycle under alternative accrual policies. Nothing is written:
+//  1. load the cycle's wallets, then stream its attendance once (forward-only cursor) into per-wallet counters
+//  2. evaluate every policy for every employee on the fork/join pool, split by wallet partition
+@Service
+@RequiredArgsConstructor
+public class PayrollSimulationService {
+
+    private static final int FETCH_SIZE = 5000;
+    private static final int PARTITION = 512;
+    private static final int MAX_POLICIES = 10;
+
+    private static final String ACTIVE_FILTER = "w.cycle_end IS NULL";
+    private static final String CYCLE_FILTER = "w.cycle_start = ?";
+
+    private static final String WALLETS_SQL = """
+            SELECT w.id, w.user_id, w.empid, u.full_name, w.daily_rate,
+                   w.current_month_earned, COALESCE(w.deduction, 0) AS deduction
+            FROM salary w
+            JOIN users u ON u.id = w.user_id
+            WHERE %s
+            ORDER BY w.id
+            """;
+
+    // Accruing statuses only, within each wallet's own cycle. Open cycles stop at the wallet's last
+    // accrued date, the same days its current_month_earned covers (today is credited only at 18:45)
+    private static final String ATTENDANCE_SQL = """
+            SELECT w.id, a.status
+            FROM salary w
+            JOIN attendance a ON a.user_id = w.user_id
+                             AND a.date >= COALESCE(w.cycle_start, a.date)
+                             AND a.date <= COALESCE(w.cycle_end,
+                                     (SELECT MAX(s.accrual_date) FROM salary_accrual s WHERE s.salary_id = w.id))
+            WHERE %s
+              AND a.status IN ('PRESENT', 'HALF_DAY', 'LEAVE')
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    // Per-wallet input, counters filled by the attendance pass
+    private static final class Employee {
+        final int walletId, userId;
+        final String empid, fullName;
+        final double dailyRate, actualEarned, deduction;
+        int present, halfDay, leave;
+
+        Employee(int walletId, int userId, String empid, String fullName,
+                 double dailyRate, double actualEarned, double deduction) {
+            this.walletId = walletId;
+            this.userId = userId;
+            this.empid = empid;
+            this.fullName = fullName;
+            this.dailyRate = dailyRate;
+            this.actualEarned = actualEarned;
+            this.deduction = deduction;
+        }
+    }
+
+    public Map<String, Object> simulate(PayrollSimulationRequest request) {
+        long start = System.nanoTime();
+
+        LocalDate cycleStart = request.getCycleStart();
+        List<PayrollPolicy> policies = (request.getPolicies() == null || request.getPolicies().isEmpty())
+                ? List.of(new PayrollPolicy("current", 1.0, 0.5, 1.0))
+                : request.getPolicies();
+        if (policies.size() > MAX_POLICIES) {
+            throw new RuntimeException("At most " + MAX_POLICIES + " policies per simulation");
+        }
+
+        List<String> policyNames = policyNames(policies);
+
+        String filter = (cycleStart == null) ? ACTIVE_FILTER : CYCLE_FILTER;
+        List<Employee> employees = new ArrayList<>();
+        long[] attendanceRows = {0};
+
+        // Read-only transaction: PostgreSQL only honours the fetch size with autocommit off
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(WALLETS_SQL.formatted(filter));
+                if (cycleStart != null) ps.setObject(1, cycleStart);
+                return ps;
+            }, rs -> {
+                employees.add(new Employee(
+                        rs.getInt("id"),
+                        rs.getInt("user_id"),
+                        rs.getString("empid"),
+                        rs.getString("full_name"),
+                        rs.getDouble("daily_rate"),
+                        rs.getDouble("current_month_earned"),
+                        rs.getDouble("deduction")
+                ));
+            });
+
+            Map<Integer, Employee> byWallet = new HashMap<>(employees.size() * 2);
+            employees.forEach(e -> byWallet.put(e.walletId, e));
+
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(ATTENDANCE_SQL.formatted(filter));
+                ps.setFetchSize(FETCH_SIZE);
+                if (cycleStart != null) ps.setObject(1, cycleStart);
+                return ps;
+            }, rs -> {
+                Employee e = byWallet.get(rs.getInt(1));
+                if (e == null) return; // wallet opened after the first query
+                switch (rs.getString(2)) {
+                    case "PRESENT" -> e.present++;
+                    case "HALF_DAY" -> e.halfDay++;
+                    case "LEAVE" -> e.leave++;
+                    default -> { }
+                }
+                attendanceRows[0]++;
+            });
+        });
+
+        // earned[i][p] = employee i under policy p
+        double[][] earned = new double[employees.size()][policies.size()];
+        double[] totals = ForkJoinPool.commonPool().invoke(
+                new EvaluateTask(employees, policies, earned, 0, employees.size()));
+
+        double totalDeduction = 0, totalActual = 0;
+        for (Employee e : employees) {
+            totalDeduction += e.deduction;
+            totalActual += e.actualEarned;
+        }
+
+        List<Map<String, Object>> scenarios = new ArrayList<>();
+        for (int p = 0; p < policies.size(); p++) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("name", policyNames.get(p));
+            s.put("policy", policies.get(p));
+            s.put("totalEarned", round(totals[p]));
+            s.put("totalDeduction", round(totalDeduction));
+            s.put("netPayable", round(totals[p] - totalDeduction));
+            s.put("deltaVsActual", round(totals[p] - totalActual));
+            scenarios.add(s);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("cycleStart", cycleStart == null ? "active" : cycleStart.toString());
+        report.put("employees", employees.size());
+        report.put("attendanceRows", attendanceRows[0]);
+        report.put("actualEarned", round(totalActual));
+        report.put("scenarios", scenarios);
+        if (request.isIncludeEmployees()) {
+            report.put("perEmployee", perEmployee(employees, policyNames, earned));
+        }
+        report.put("durationMs", (System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+
+    // Splits the wallet range until PARTITION; each leaf writes its own rows of earned[][]
+    // and returns its per-policy subtotal
+    private static final class EvaluateTask extends RecursiveTask<double[]> {
+        private final List<Employee> employees;
+        private final List<PayrollPolicy> policies;
+        private final double[][] earned;
+        private final int from, to;
+
+        EvaluateTask(List<Employee> employees, List<PayrollPolicy> policies, double[][] earned, int from, int to) {
+            this.employees = employees;
+            this.policies = policies;
+            this.earned = earned;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from <= PARTITION) {
+                double[] subtotal = new double[policies.size()];
+                for (int i = from; i < to; i++) {
+                    Employee e = employees.get(i);
+                    for (int p = 0; p < policies.size(); p++) {
+                        PayrollPolicy policy = policies.get(p);
+                        double days = e.present * policy.getPresentWeight()
+                                + e.halfDay * policy.getHalfDayWeight()
+                                + e.leave * policy.getLeaveWeight();
+                        earned[i][p] = e.dailyRate * days;
+                        subtotal[p] += earned[i][p];
+                    }
+                }
+                return subtotal;
+            }
+
+            int mid = (from + to) >>> 1;
+            EvaluateTask left = new EvaluateTask(employees, policies, earned, from, mid);
+            left.fork();
+            double[] right = new EvaluateTask(employees, policies, earned, mid, to).compute();
+            double[] sum = left.join();
+            for (int p = 0; p < sum.length; p++) sum[p] += right[p];
+            return sum;
+        }
+    }
+
+    private static List<Map<String, Object>> perEmployee(List<Employee> employees,
+                                                        List<String> policyNames,
+                                                        double[][] earned) {
+        List<Map<String, Object>> rows = new ArrayList<>(employees.size());
+        for (int i = 0; i < employees.size(); i++) {
+            Employee e = employees.get(i);
+
+            Map<String, Object> byPolicy = new LinkedHashMap<>();
+            for (int p = 0; p < policyNames.size(); p++) {
+                byPolicy.put(policyNames.get(p), round(earned[i][p]));
+            }
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("userId", e.userId);
+            row.put("empid", e.empid);
+            row.put("fullName", e.fullName);
+            row.put("dailyRate", round(e.dailyRate));
+            row.put("present", e.present);
+            row.put("halfDay", e.halfDay);
+            row.put("leave", e.leave);
+            row.put("actualEarned", round(e.actualEarned));
+            row.put("deduction", round(e.deduction));
+            row.put("earned", byPolicy);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    // Unique keys for the per-employee figures: unnamed → policyN, repeated → name#N
+    private static List<String> policyNames(List<PayrollPolicy> policies) {
+        List<String> names = new ArrayList<>();
+        for (int p = 0; p < policies.size(); p++) {
+            String name = policies.get(p).getName();
+            if (name == null || name.isBlank()) name = "policy" + (p + 1);
+            if (names.contains(name)) name = name + "#" + (p + 1);
+            names.add(name);
+        }
+        return names;
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100.0) / 100.0;
+    }
+}
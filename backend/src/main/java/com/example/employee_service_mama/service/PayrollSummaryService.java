@@ -0,0 +1,123 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.dto.PayrollSummaryDTO;
+import com.example.employee_service_mama.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Running payroll totals for the active salary cycle, so the dashboard never SUMs every salary row ever written.
+//  deduction → applied copy-on-write to the snapshot once the writer commits
+//  accrual / rollover → set-based writes, totals reloaded (one index-only scan over active cycles)
+// Reseeded every 10 minutes to pick up writes made by other instances.
+@Service
+@RequiredArgsConstructor
+public class PayrollSummaryService {
+
+    private final WalletRepository walletRepository;
+
+    // Immutable totals, replaced as a whole: readers never see half of a reload
+    private record Totals(LocalDate cycleStart, long employees, double monthlySalary,
+                          double earned, double deduction, OffsetDateTime refreshedAt) {
+
+        static final Totals EMPTY = new Totals(null, 0, 0, 0, 0, null);
+
+        Totals plusDeduction(double amount) {
+            return new Totals(cycleStart, employees, monthlySalary, earned, deduction + amount, OffsetDateTime.now());
+        }
+    }
+
+    private final AtomicReference<Totals> totals = new AtomicReference<>(Totals.EMPTY);
+    private volatile boolean stale = true;
+
+    // ---------------- RESEED ----------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            reload();
+        } catch (Exception e) {
+            System.out.println("⚠ Payroll summary warm-up skipped → " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelay = 600_000, initialDelay = 600_000)
+    public void resync() {
+        reload();
+    }
+
+    public synchronized void reload() {
+        stale = false;
+        List<Object[]> rows = walletRepository.activeCycleTotals();
+        Object[] row = rows.isEmpty() ? new Object[]{0, null, 0, 0, 0} : rows.get(0);
+
+        totals.set(new Totals(
+                row[1] == null ? null : toLocalDate(row[1]),
+                ((Number) row[0]).longValue(),
+                ((Number) row[2]).doubleValue(),
+                ((Number) row[3]).doubleValue(),
+                ((Number) row[4]).doubleValue(),
+                OffsetDateTime.now()
+        ));
+    }
+
+    // ---------------- EVENTS ----------------
+    // Daily accrual credited active wallets
+    public void onAccrued() {
+        afterCommit(() -> stale = true);
+    }
+
+    // Cycles closed and reopened
+    public void onRollover() {
+        afterCommit(() -> stale = true);
+    }
+
+    // Deduction added to an active wallet
+    public void onDeduction(double amount) {
+        afterCommit(() -> totals.updateAndGet(t -> t.plusDeduction(amount)));
+    }
+
+    // ---------------- READ ----------------
+    public PayrollSummaryDTO summary() {
+        if (stale) reload();
+
+        Totals t = totals.get();
+        return new PayrollSummaryDTO(
+                t.cycleStart(),
+                t.employees(),
+                t.monthlySalary(),
+                t.earned(),
+                t.deduction(),
+                t.earned() - t.deduction(),
+                t.refreshedAt()
+        );
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof LocalDate d) return d;
+        if (value instanceof Date d) return d.toLocalDate();
+        return LocalDate.parse(value.toString());
+    }
+}
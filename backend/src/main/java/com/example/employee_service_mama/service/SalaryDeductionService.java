@@ -0,0 +1,138 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.dto.DeductionEntry;
+import com.example.employee_service_mama.model.SalaryDeduction;
+import com.example.employee_service_mama.repository.SalaryDeductionRepository;
+import com.example.employee_service_mama.repository.WalletRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.*;
+
+// Deductions on the active salary cycle: atomic in-database increments, recorded in salary_deduction
+@Service
+@RequiredArgsConstructor
+public class SalaryDeductionService {
+
+    // Entries as arrays; amounts are summed per empid into one increment, every entry is logged
+    private static final String BULK_SQL = """
+            WITH entries AS (
+                SELECT e.empid, e.amount, e.reason
+                FROM unnest(CAST(? AS text[]), CAST(? AS double precision[]), CAST(? AS text[]))
+                     AS e(empid, amount, reason)
+            ),
+            totals AS (
+                SELECT empid, SUM(amount) AS amount
+                FROM entries
+                GROUP BY empid
+            ),
+            updated AS (
+                UPDATE salary w
+                SET deduction = COALESCE(w.deduction, 0) + t.amount,
+                    last_updated = NOW()
+                FROM totals t
+                WHERE w.empid = t.empid
+                  AND w.cycle_end IS NULL
+                RETURNING w.id, w.user_id, w.empid
+            ),
+            logged AS (
+                INSERT INTO salary_deduction (salary_id, user_id, empid, amount, reason, created_at)
+                SELECT u.id, u.user_id, e.empid, e.amount, e.reason, NOW()
+                FROM entries e
+                JOIN updated u ON u.empid = e.empid
+                RETURNING empid
+            )
+            SELECT DISTINCT empid FROM logged
+            """;
+
+    private final SalaryDeductionRepository deductionRepository;
+    private final WalletRepository walletRepository;
+    private final PayrollSummaryService payrollSummary;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Transactional
+    public boolean apply(String empid, Double amount, String reason) {
+        if (empid == null || empid.isBlank()) {
+            throw new IllegalArgumentException("Employee ID is required");
+        }
+        if (!isValidAmount(amount)) {
+            throw new IllegalArgumentException("Deduction amount must be a positive number, got " + amount
+                    + " for Employee ID: " + empid);
+        }
+
+        boolean applied = deductionRepository.applyToActiveCycle(empid.trim(), amount, reason) > 0;
+        if (applied) payrollSummary.onDeduction(amount);
+        return applied;
+    }
+
+    // Many (empid, amount, reason) entries in one statement; all-or-nothing:
+    // an invalid entry or an empid without an active cycle rejects the whole request (400, nothing written)
+    @Transactional
+    public Map<String, Object> applyBulk(List<DeductionEntry> entries) {
+        if (entries == null || entries.isEmpty()) {
+            throw new IllegalArgumentException("No deduction entries");
+        }
+
+        List<String> empids = new ArrayList<>();
+        List<Double> amounts = new ArrayList<>();
+        List<String> reasons = new ArrayList<>();
+        List<Integer> invalid = new ArrayList<>();
+
+        for (int i = 0; i < entries.size(); i++) {
+            DeductionEntry e = entries.get(i);
+            if (e == null || e.getEmpid() == null || e.getEmpid().isBlank() || !isValidAmount(e.getAmount())) {
+                invalid.add(i);
+                continue;
+            }
+            empids.add(e.getEmpid().trim());
+            amounts.add(e.getAmount());
+            reasons.add(e.getReason());
+        }
+        if (!invalid.isEmpty()) {
+            throw new IllegalArgumentException("Invalid deduction entries (empid and a positive amount required) at index "
+                    + invalid + "; nothing applied");
+        }
+
+        Set<String> appliedEmpids = new HashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(BULK_SQL);
+            ps.setArray(1, con.createArrayOf("text", empids.toArray()));
+            ps.setArray(2, con.createArrayOf("float8", amounts.toArray()));
+            ps.setArray(3, con.createArrayOf("text", reasons.toArray()));
+            return ps;
+        }, rs -> {
+            appliedEmpids.add(rs.getString(1));
+        });
+
+        Set<String> notFound = new LinkedHashSet<>(empids);
+        notFound.removeAll(appliedEmpids);
+        if (!notFound.isEmpty()) {
+            // Thrown inside the transaction → the increments and ledger rows already written roll back
+            throw new IllegalArgumentException("No active salary cycle for Employee ID(s) " + notFound + "; nothing applied");
+        }
+
+        double total = amounts.stream().mapToDouble(Double::doubleValue).sum();
+        payrollSummary.onDeduction(total);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("message", "Bulk deduction applied!");
+        report.put("applied", empids.size());
+        report.put("totalAmount", total);
+        return report;
+    }
+
+    // Ledger of the user's active cycle, newest first
+    public List<SalaryDeduction> activeCycleDeductions(Integer userId) {
+        return walletRepository.findActiveWalletForUser(userId)
+                .map(w -> deductionRepository.findBySalaryIdOrderByIdDesc(w.getId()))
+                .orElse(List.of());
+    }
+
+    // Deductions only; a negative amount would silently credit the wallet
+    private static boolean isValidAmount(Double amount) {
+        return amount != null && Double.isFinite(amount) && amount > 0;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.repository.AttendanceRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+// SANDWICH POLICY — Friday or Monday Absent → Sat & Sun Absent.
+// Evaluated by the write that changes the Friday / Monday row, not by a nightly scan: the
+// weekend is marked when the row is ABSENT, and the policy's own weekend rows are reverted
+// (deleted, or restored to their previous status) once neither side is ABSENT any more.
+@Service
+@RequiredArgsConstructor
+public class SandwichPolicyService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String REMARKS = "Sandwich Applied";
+
+    private final AttendanceRepository attendanceRepository;
+    private final AttendanceSummaryService summaryService;
+
+    // userIds = users whose row on `date` was just written, whatever its new status
+    @Transactional
+    public int onAttendanceWritten(Collection<Integer> userIds, LocalDate date) {
+        LocalDate saturday = sandwichedSaturday(date);
+        if (saturday == null || userIds == null || userIds.isEmpty()) return 0;
+
+        LocalDate sunday = saturday.plusDays(1);
+        List<Integer> ids = new ArrayList<>(userIds);
+
+        int written = 0;
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            List<Integer> chunk = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+
+            written += attendanceRepository.markSandwichWeekendAbsent(chunk, date, saturday, sunday, REMARKS);
+            written += attendanceRepository.insertSandwichWeekendAbsent(chunk, date, saturday, sunday, REMARKS);
+
+            LocalDate friday = saturday.minusDays(1);
+            LocalDate monday = sunday.plusDays(1);
+            written += attendanceRepository.deleteStaleSandwichRows(chunk, friday, saturday, sunday, monday, REMARKS);
+            written += attendanceRepository.restoreStaleSandwichRows(chunk, friday, saturday, sunday, monday, REMARKS);
+        }
+
+        if (written > 0) {
+            summaryService.refresh(ids, saturday);
+            if (sunday.getMonthValue() != saturday.getMonthValue()) summaryService.refresh(ids, sunday);
+        }
+        return written;
+    }
+
+    // Manual re-evaluation (mark and revert) for every row on the given Friday / Monday
+    @Transactional
+    public int reevaluate(LocalDate date) {
+        return onAttendanceWritten(attendanceRepository.findUserIdsByDate(date), date);
+    }
+
+    // Friday → following weekend, Monday → previous weekend, other days → none
+    private LocalDate sandwichedSaturday(LocalDate date) {
+        if (date.getDayOfWeek() == DayOfWeek.FRIDAY) return date.plusDays(1);
+        if (date.getDayOfWeek() == DayOfWeek.MONDAY) return date.minusDays(2);
+        return null;
+    }
+}
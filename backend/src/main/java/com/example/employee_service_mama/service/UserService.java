@@ -24,8 +24,8 @@ public class UserService {
 
     private final UserRepository userRepository;
     private final AttendanceRepository attendanceRepository;
-    private final LeaveRequestsRepository leaveRequestsRepository;
-    private final AttendanceRecordsRepository recordsRepo;
+    private final LiveAttendanceStats liveStats;
+    private final ApprovedLeaveIndex leaveIndex;
     private final EmailService emailService;
     private final S3Client s3;
     private final JwtUtil jwtUtil;
@@ -134,13 +134,11 @@ public class UserService {
 
     // ---------------- COUNT LOGIC ----------------
     public long getOnLeaveTodayCount() {
-        return leaveRequestsRepository.countLeaveToday(LocalDate.now());
+        return leaveIndex.countOnLeave(LocalDate.now());
     }
 
     public long getPresentTodayCount() {
-        String today = LocalDate.now()
-                .format(java.time.format.DateTimeFormatter.ofPattern("MM/dd/yyyy"));
-        return recordsRepo.countPresentToday(today);
+        return liveStats.sheetPresent();
     }
 
 //    public List<Users> addBulkEmployees(List<Users> users) {
@@ -1,12 +1,11 @@
 // src/main/java/com/example/employee_service_mama/service/WalletService.java
 package com.example.employee_service_mama.service;
 
+import com.example.employee_service_mama.dto.JobRunReport;
+import com.example.employee_service_mama.dto.PayrollSummaryDTO;
 import com.example.employee_service_mama.dto.WalletResponse;
-import com.example.employee_service_mama.model.Attendance;
-import com.example.employee_service_mama.model.Users;
 import com.example.employee_service_mama.model.Wallet;
-import com.example.employee_service_mama.repository.AttendanceRepository;
-import com.example.employee_service_mama.repository.UserRepository;
+import com.example.employee_service_mama.repository.SalaryAccrualRepository;
 import com.example.employee_service_mama.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -16,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Service
@@ -23,8 +23,9 @@ import java.util.List;
 public class WalletService {
 
     private final WalletRepository walletRepository;
-    private final AttendanceRepository attendanceRepository;
-    private final UserRepository userRepository;
+    private final SalaryAccrualRepository accrualRepository;
+    private final PayrollSummaryService payrollSummary;
+    private final SalaryDeductionService deductionService;
 
     public Float getMonthSalary(Integer userId) {
         return walletRepository.monthsalary(userId);
@@ -34,28 +35,29 @@ public class WalletService {
         return walletRepository.dailyrate(userId);
     }
 
+    // Active-cycle totals from the maintained payroll snapshot
+    public PayrollSummaryDTO getPayrollSummary() {
+        return payrollSummary.summary();
+    }
+
     public Double getTotalSalary() {
-        return walletRepository.totalmonthsalary();
+        return payrollSummary.summary().getTotalMonthlySalary();
     }
 
     public Double getNetPayable() {
-        return walletRepository.currentMonthEarned();
+        return payrollSummary.summary().getNetPayable();
     }
 
     public Double getTotalDeduction() {
-        return walletRepository.totaldeduction();
+        return payrollSummary.summary().getTotalDeduction();
     }
 
-    public String addDeduction(String empid, Double deductionAmount) {
-        Wallet wallet = walletRepository.findByEmpid(empid).orElse(null);
-        if (wallet == null) {
+    // Atomic increment on the active cycle, logged in salary_deduction
+    public String addDeduction(String empid, Double deductionAmount, String reason) {
+        if (!deductionService.apply(empid, deductionAmount, reason)) {
             return "Salary details not found for Employee ID: " + empid;
         }
 
-        double currentDeduction = wallet.getDeduction() == null ? 0.0 : wallet.getDeduction();
-        wallet.setDeduction(currentDeduction + deductionAmount);
-        walletRepository.save(wallet);
-
         return "Deduction added successfully for Employee ID: " + empid;
     }
 
@@ -71,43 +73,43 @@ public class WalletService {
     @Scheduled(cron = "0 45 18 * * MON-FRI") // 6:45 PM after attendance finalization
     @Transactional
     public void updateDailySalary() {
+        JobRunReport report = accrueDailySalary(LocalDate.now());
+        System.out.println("✔ Salary updated — " + report);
+    }
 
-        LocalDate today = LocalDate.now();
-
-        List<Attendance> attendanceList = attendanceRepository.findByDate(today);
-
-        for (Attendance att : attendanceList) {
-
-            Users user = att.getUser();
-            Wallet wallet = walletRepository.findActiveWalletForUser(user.getId())
-                    .orElse(createNewWalletForUser(user));
-
-            double addAmount = 0;
-
-            switch (att.getStatus()) {
-                case "PRESENT":
-                    addAmount = wallet.getDailyRate();
-                    break;
+    // Set-based and idempotent: open missing cycles, then upsert the ledger and credit only
+    // what changed — a rerun for the same date credits nothing, a corrected status the difference
+    @Transactional
+    public JobRunReport accrueDailySalary(LocalDate date) {
+        long start = System.nanoTime();
 
-                case "HALF_DAY":
-                    addAmount = wallet.getDailyRate() / 2;
-                    break;
+        walletRepository.insertMissingActiveWallets(date, cycleStartFor(date));
+        int rows = accrualRepository.upsertAndCredit(date);
+        payrollSummary.onAccrued();
 
-                case "LEAVE":
-                    addAmount = wallet.getDailyRate(); // (If company policy allows)
-                    break;
+        return new JobRunReport("Daily Salary", date, rows, (System.nanoTime() - start) / 1_000_000);
+    }
 
-                default:
-                    addAmount = 0;
-            }
+    // Attendance of already-accrued dates changed (finalization backfill, recompute):
+    // re-run the ledger upsert for those dates so wallets follow the correction
+    @Transactional
+    public int reaccrue(Collection<LocalDate> dates) {
+        if (dates == null || dates.isEmpty()) return 0;
 
-            wallet.setCurrentMonthEarned(wallet.getCurrentMonthEarned() + addAmount);
-            wallet.setLastUpdated(OffsetDateTime.now());
-            walletRepository.save(wallet);
+        int credited = 0;
+        for (LocalDate date : accrualRepository.findAccruedDates(dates)) {
+            credited += accrualRepository.upsertAndCredit(date);
         }
+        if (credited > 0) payrollSummary.onAccrued();
+        return credited;
+    }
 
-        System.out.println("✔ Salary updated for " + today);
+    // Re-derive active-cycle earnings from the accrual ledger
+    @Transactional
+    public int reconcileEarnedFromLedger() {
+        return accrualRepository.reconcileActiveWallets();
     }
+
     @Scheduled(cron = "0 0 0 * * *") // Every midnight
     @Transactional
     public void checkAndCreateNewCycle() {
@@ -116,58 +118,30 @@ public class WalletService {
 
         if (today.getDayOfMonth() != 23) return;
 
-        List<Users> users = userRepository.findAll();
-
-        for (Users user : users) {
-            Wallet activeWallet = walletRepository.findActiveWalletForUser(user.getId()).orElse(null);
-
-            if (activeWallet == null) continue;
-
-            // Close existing cycle
-            activeWallet.setCycleEnd(today);
-            walletRepository.save(activeWallet);
-
-            // Create new cycle starting tomorrow 24th
-            Wallet newWallet = Wallet.builder()
-                    .user(user)
-                    .empid(user.getEmpid())
-                    .monthlySalary(activeWallet.getMonthlySalary())
-                    .dailyRate(activeWallet.getDailyRate())
-                    .currentMonthEarned(0.0)
-                    .deduction(0.0)
-                    .cycleStart(today.plusDays(1)) // 24th
-                    .build();
-
-            walletRepository.save(newWallet);
-        }
-
-        System.out.println("💰 New salary cycle created starting tomorrow!");
+        JobRunReport report = rolloverCycles(today);
+        System.out.println("💰 New salary cycle created starting tomorrow! — " + report);
     }
 
+    // Two statements for the whole company: close active cycles on closeDate, open the next
+    // ones the day after (24th). Safe to fire twice — the second run closes and opens nothing.
+    @Transactional
+    public JobRunReport rolloverCycles(LocalDate closeDate) {
+        long start = System.nanoTime();
 
+        walletRepository.closeActiveCycles(closeDate);
+        int opened = walletRepository.openNextCycles(closeDate, closeDate.plusDays(1));
+        payrollSummary.onRollover();
 
-    private Wallet createNewWalletForUser(Users user) {
+        return new JobRunReport("Salary Cycle Rollover", closeDate, opened, (System.nanoTime() - start) / 1_000_000);
+    }
 
-        double monthlySalary = user.getBaseSalary() != null ? user.getBaseSalary() : 0.0;
-        double dailyRate = monthlySalary / 30.0; // OR divide by working days if needed
 
-        Wallet wallet = Wallet.builder()
-                .user(user)
-                .empid(user.getEmpid())
-                .monthlySalary(monthlySalary)
-                .dailyRate(dailyRate)
-                .currentMonthEarned(0.0)
-                .deduction(0.0)
-                .cycleStart(getCurrentCycleStartDate())
-                .build();
 
-        return walletRepository.save(wallet);
-    }
-    private LocalDate getCurrentCycleStartDate() {
-        LocalDate today = LocalDate.now();
-        return (today.getDayOfMonth() < 24)
-                ? today.withDayOfMonth(24).minusMonths(1)
-                : today.withDayOfMonth(24);
+    // Cycles run from the 24th to the 23rd of the next month
+    private LocalDate cycleStartFor(LocalDate date) {
+        return (date.getDayOfMonth() < 24)
+                ? date.withDayOfMonth(24).minusMonths(1)
+                : date.withDayOfMonth(24);
     }
 
     public Double deductionamount(Integer userId) {
@@ -0,0 +1,22 @@
+package com.example.employee_service_mama.util;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+import java.time.LocalDate;
+
+// Accepts every sheet date format (see SheetDates) for AttendanceCsvFile.date in JSON uploads
+public class SheetDateDeserializer extends JsonDeserializer<LocalDate> {
+
+    @Override
+    public LocalDate deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String raw = p.getValueAsString();
+        LocalDate date = SheetDates.parse(raw);
+        if (date == null && raw != null && !raw.isBlank()) {
+            return (LocalDate) ctxt.handleWeirdStringValue(LocalDate.class, raw, "Unrecognized sheet date");
+        }
+        return date;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.employee_service_mama.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+// Dates as they arrive from attendance sheets: yyyy-MM-dd, MM/dd/yyyy (M/d/yyyy) or an Excel serial day number
+public final class SheetDates {
+
+    private static final DateTimeFormatter US_FORMAT = DateTimeFormatter.ofPattern("M/d/yyyy");
+    private static final LocalDate EXCEL_EPOCH = LocalDate.of(1899, 12, 30);
+
+    private SheetDates() {
+    }
+
+    // null when the value is blank or not a recognizable date
+    public static LocalDate parse(String value) {
+        if (value == null || value.isBlank()) return null;
+        String v = value.trim();
+
+        try {
+            if (v.contains("-")) return LocalDate.parse(v);
+            if (v.contains("/")) return LocalDate.parse(v, US_FORMAT);
+            if (v.chars().allMatch(Character::isDigit)) return EXCEL_EPOCH.plusDays(Long.parseLong(v));
+        } catch (DateTimeException | ArithmeticException | NumberFormatException e) {
+            // Out-of-range serials (very long digit strings) are invalid dates, not import failures
+            return null;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.employee_service_mama;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Base for tests of the native SQL paths (ON CONFLICT, RETURNING, unnest, CTE writes):
+// the full context against one throwaway PostgreSQL shared by every test class (requires Docker).
+// Kafka listeners stay stopped; each test starts from empty tables.
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "spring.jpa.show-sql=false",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=INFO"
+})
+public abstract class PostgresIntegrationTest {
+
+    // Started once per JVM so the cached Spring context keeps pointing at a live database
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    static {
+        POSTGRES.start();
+    }
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void cleanTables() {
+        jdbcTemplate.execute("""
+                TRUNCATE users, salary_accrual, salary_deduction, attendance_summary,
+                         attendance_daily_summary, attendance_records
+                CASCADE
+                """);
+    }
+
+    // ---------------- FIXTURES ----------------
+    protected int insertUser(String empid, double baseSalary) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO users (email, full_name, empid, role, domain, base_salary)
+                VALUES (?, ?, ?, 'EMPLOYEE', 'IT', ?)
+                RETURNING id
+                """, Integer.class, empid.toLowerCase() + "@test.local", "Employee " + empid, empid, baseSalary);
+    }
+
+    protected int insertAttendance(int userId, String empid, LocalDate date, String status,
+                                   LocalTime login, LocalTime logout, String remarks) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO attendance (user_id, empid, date, status, login_time, logout_time, remarks, created_at)
+                VALUES (?, ?, ?, ?, ?, ?, ?, NOW())
+                RETURNING id
+                """, Integer.class, userId, empid, date, status, login, logout, remarks);
+    }
+
+    protected int insertAttendance(int userId, String empid, LocalDate date, String status) {
+        return insertAttendance(userId, empid, date, status, null, null, null);
+    }
+
+    protected int insertWallet(int userId, String empid, double monthlySalary, double earned,
+                               LocalDate cycleStart, LocalDate cycleEnd) {
+        return jdbcTemplate.queryForObject("""
+                INSERT INTO salary (user_id, empid, monthly_salary, daily_rate, current_month_earned, deduction,
+                                    cycle_start, cycle_end, last_updated)
+                VALUES (?, ?, ?, ?, ?, 0, ?, ?, NOW())
+                RETURNING id
+                """, Integer.class, userId, empid, monthlySalary, monthlySalary / 30.0, earned, cycleStart, cycleEnd);
+    }
+
+    protected String statusOf(int userId, LocalDate date) {
+        return jdbcTemplate.query("SELECT status FROM attendance WHERE user_id = ? AND date = ?",
+                rs -> rs.next() ? rs.getString(1) : null, userId, date);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.employee_service_mama.config;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Startup repair of a database where ddl-auto could not add uk_attendance_user_date
+class AttendanceUniquenessMigrationTest extends PostgresIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 12);
+
+    @Autowired
+    @Qualifier("attendanceUniquenessMigrationRunner")
+    private ApplicationRunner migration;
+
+    @Test
+    void duplicatesCollapseToTheMostCompleteRowAndIndexIsCreated() throws Exception {
+        int userId = insertUser("E1", 30000);
+        int other = insertUser("E2", 30000);
+        dropUserDateUniqueness();
+
+        insertAttendance(userId, "E1", DAY, "ABSENT");
+        int complete = insertAttendance(userId, "E1", DAY, "PRESENT",
+                LocalTime.of(9, 0), LocalTime.of(18, 0), "Full Day");
+        insertAttendance(userId, "E1", DAY, "LOGGED_IN", LocalTime.of(9, 5), null, null);
+        int untouched = insertAttendance(other, "E2", DAY, "PRESENT");
+
+        migration.run(new DefaultApplicationArguments());
+
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT id FROM attendance ORDER BY id", Integer.class)).containsExactly(complete, untouched);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_indexes WHERE indexname = 'uk_attendance_user_date'",
+                Integer.class)).isEqualTo(1);
+        assertThatThrownBy(() -> insertAttendance(userId, "E1", DAY, "ABSENT"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    @Test
+    void secondRunChangesNothing() throws Exception {
+        int userId = insertUser("E1", 30000);
+        insertAttendance(userId, "E1", DAY, "PRESENT");
+
+        migration.run(new DefaultApplicationArguments());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance", Integer.class)).isEqualTo(1);
+    }
+
+    // Simulates the legacy schema; the runner under test puts the index back
+    private void dropUserDateUniqueness() {
+        jdbcTemplate.execute("ALTER TABLE attendance DROP CONSTRAINT IF EXISTS uk_attendance_user_date");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS uk_attendance_user_date");
+    }
+}
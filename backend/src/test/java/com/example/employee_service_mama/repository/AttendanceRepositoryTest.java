@@ -0,0 +1,68 @@
+package com.example.employee_service_mama.repository;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Login without a lock: the (user_id, date) unique constraint decides the race
+class AttendanceRepositoryTest extends PostgresIntegrationTest {
+
+    private static final LocalDate WEDNESDAY = LocalDate.of(2025, 3, 12);
+    private static final int THREADS = 16;
+
+    @Autowired
+    private AttendanceRepository attendanceRepository;
+
+    @Test
+    void concurrentLoginsInsertExactlyOneRow() throws Exception {
+        int userId = insertUser("E1", 30000);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Object[]>>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < THREADS; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return attendanceRepository.insertLoginIfAbsent(
+                            userId, WEDNESDAY, LocalTime.of(9, 0), "PRESENT", "Login Recorded");
+                }));
+            }
+            start.countDown();
+
+            int winners = 0;
+            for (Future<List<Object[]>> result : results) {
+                List<Object[]> rows = result.get(30, TimeUnit.SECONDS);
+                if (!rows.isEmpty()) {
+                    winners++;
+                    assertThat(rows.get(0)[1]).isEqualTo("E1");
+                }
+            }
+            assertThat(winners).isEqualTo(1);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM attendance WHERE user_id = ? AND date = ?",
+                Integer.class, userId, WEDNESDAY)).isEqualTo(1);
+    }
+
+    @Test
+    void loginForUnknownUserInsertsNothing() {
+        assertThat(attendanceRepository.insertLoginIfAbsent(
+                Integer.MAX_VALUE, WEDNESDAY, LocalTime.of(9, 0), "PRESENT", "Login Recorded")).isEmpty();
+    }
+}
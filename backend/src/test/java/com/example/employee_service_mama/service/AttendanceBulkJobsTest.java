@@ -0,0 +1,83 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import com.example.employee_service_mama.dto.JobRunReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Set-based attendance jobs: one statement for the whole company, safe to run twice
+class AttendanceBulkJobsTest extends PostgresIntegrationTest {
+
+    private static final LocalDate WEDNESDAY = LocalDate.of(2025, 3, 12);
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    // ---------------- AUTO ABSENT ----------------
+    @Test
+    void autoAbsentMarksOnlyUsersWithoutRowOrLeave() {
+        int present = insertUser("E1", 30000);
+        int missing = insertUser("E2", 30000);
+        int onLeave = insertUser("E3", 30000);
+        insertAttendance(present, "E1", WEDNESDAY, "PRESENT");
+        jdbcTemplate.update("""
+                INSERT INTO leave_request (user_id, empid, start_date, end_date, reason, status, created_at)
+                VALUES (?, 'E3', ?, ?, 'Family', 'approved', NOW())
+                """, onLeave, WEDNESDAY.minusDays(1), WEDNESDAY.plusDays(1));
+
+        JobRunReport report = attendanceService.autoAbsentBulk(WEDNESDAY);
+
+        assertThat(report.getRowsAffected()).isEqualTo(1);
+        assertThat(statusOf(present, WEDNESDAY)).isEqualTo("PRESENT");
+        assertThat(statusOf(missing, WEDNESDAY)).isEqualTo("ABSENT");
+        assertThat(statusOf(onLeave, WEDNESDAY)).isNull();
+    }
+
+    @Test
+    void autoAbsentRerunInsertsNothing() {
+        insertUser("E1", 30000);
+        insertUser("E2", 30000);
+
+        assertThat(attendanceService.autoAbsentBulk(WEDNESDAY).getRowsAffected()).isEqualTo(2);
+        assertThat(attendanceService.autoAbsentBulk(WEDNESDAY).getRowsAffected()).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM attendance WHERE date = ?", Integer.class, WEDNESDAY)).isEqualTo(2);
+    }
+
+    // ---------------- AUTO LOGOUT ----------------
+    @Test
+    void autoLogoutClosesOpenRowsWithStatusFromWorkedHours() {
+        int fullDay = insertUser("E1", 30000);
+        int afternoon = insertUser("E2", 30000);
+        int closed = insertUser("E3", 30000);
+        insertAttendance(fullDay, "E1", WEDNESDAY, "PRESENT", LocalTime.of(9, 0), null, "Login Recorded");
+        insertAttendance(afternoon, "E2", WEDNESDAY, "PRESENT", LocalTime.of(14, 0), null, "Login Recorded");
+        insertAttendance(closed, "E3", WEDNESDAY, "PRESENT", LocalTime.of(9, 0), LocalTime.of(18, 0), "Full Day");
+
+        List<Integer> loggedOut = attendanceService.autoLogoutBulk(WEDNESDAY);
+
+        assertThat(loggedOut).containsExactlyInAnyOrder(fullDay, afternoon);
+        // 09:00 → 18:30 is past the 5 h minimum, 14:00 → 18:30 is not
+        assertThat(statusOf(fullDay, WEDNESDAY)).isEqualTo("HALF_DAY");
+        assertThat(statusOf(afternoon, WEDNESDAY)).isEqualTo("ABSENT");
+        assertThat(statusOf(closed, WEDNESDAY)).isEqualTo("PRESENT");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT logout_time FROM attendance WHERE user_id = ? AND date = ?",
+                LocalTime.class, fullDay, WEDNESDAY)).isEqualTo(AttendanceRules.AUTO_LOGOUT_TIME);
+    }
+
+    @Test
+    void autoLogoutRerunClosesNothing() {
+        int userId = insertUser("E1", 30000);
+        insertAttendance(userId, "E1", WEDNESDAY, "PRESENT", LocalTime.of(9, 0), null, "Login Recorded");
+
+        assertThat(attendanceService.autoLogoutBulk(WEDNESDAY)).containsExactly(userId);
+        assertThat(attendanceService.autoLogoutBulk(WEDNESDAY)).isEmpty();
+    }
+}
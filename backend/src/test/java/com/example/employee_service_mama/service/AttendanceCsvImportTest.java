@@ -0,0 +1,56 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Streaming CSV sheet upload: one row per empid per date, enforced by uk_attendance_records_date_empid
+class AttendanceCsvImportTest extends PostgresIntegrationTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 12);
+
+    @Autowired
+    private AttendanceCsvFileService csvFileService;
+
+    @Test
+    void duplicateEmpidIsRejectedAndAbsenteesAdded() throws Exception {
+        insertUser("E1", 30000);
+        insertUser("E2", 30000);
+
+        Map<String, Object> result = csvFileService.importCsv(csv("""
+                empid,name,date,domain,remark,status
+                E1,Employee E1,2025-03-12,IT,,Present
+                E1,Employee E1,2025-03-12,IT,,Late
+                """));
+
+        assertThat(result.get("inserted")).isEqualTo(1);
+        assertThat(result.get("rejected")).isEqualTo(1);
+        assertThat(result.get("absentees")).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT status FROM attendance_records WHERE record_date = ? AND empid = 'E1'",
+                String.class, DAY)).isEqualTo("Present");
+    }
+
+    @Test
+    void databaseRejectsASecondRowForTheSameEmpidAndDate() {
+        String insert = "INSERT INTO attendance_records (empid, name, record_date, domain, remark, status) "
+                + "VALUES ('E1', 'Employee E1', ?, 'IT', '', 'Present')";
+        jdbcTemplate.update(insert, DAY);
+
+        assertThatThrownBy(() -> jdbcTemplate.update(insert, DAY))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
+    private static ByteArrayInputStream csv(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
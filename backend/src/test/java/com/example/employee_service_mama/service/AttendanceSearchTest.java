@@ -0,0 +1,85 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import com.example.employee_service_mama.dto.AttendanceGridRowDTO;
+import com.example.employee_service_mama.dto.AttendanceSearchPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// HR grid keyset pages over (date DESC, id DESC): every row once, across ties on date
+class AttendanceSearchTest extends PostgresIntegrationTest {
+
+    private static final LocalDate FIRST_DAY = LocalDate.of(2025, 3, 10);
+
+    @Autowired
+    private AttendanceService attendanceService;
+
+    @Test
+    void pagesCoverEveryRowOnceInOrder() {
+        seed(5, 3);
+
+        List<AttendanceGridRowDTO> seen = new ArrayList<>();
+        AttendanceSearchPage page = attendanceService.searchAttendance(
+                null, null, null, null, null, null, 4, true);
+        assertThat(page.getTotal()).isEqualTo(15);
+
+        while (true) {
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(4);
+            seen.addAll(page.getItems());
+            if (!page.isHasMore()) break;
+            page = attendanceService.searchAttendance(null, null, null, null,
+                    page.getNextBeforeDate(), page.getNextBeforeId(), 4, false);
+            assertThat(page.getTotal()).isNull();
+        }
+
+        assertThat(seen).hasSize(15);
+        assertThat(seen).extracting(AttendanceGridRowDTO::getId).doesNotHaveDuplicates();
+        assertThat(seen).isSortedAccordingTo(Comparator
+                .comparing(AttendanceGridRowDTO::getDate).reversed()
+                .thenComparing(AttendanceGridRowDTO::getId, Comparator.reverseOrder()));
+    }
+
+    @Test
+    void exactPageSizeEndsWithoutAnEmptyPage() {
+        seed(2, 2);
+
+        AttendanceSearchPage page = attendanceService.searchAttendance(
+                null, null, null, null, null, null, 4, false);
+
+        assertThat(page.getItems()).hasSize(4);
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getNextBeforeId()).isNull();
+    }
+
+    @Test
+    void searchAndDateNarrowThePage() {
+        seed(5, 3);
+
+        AttendanceSearchPage page = attendanceService.searchAttendance(
+                "e3", FIRST_DAY.plusDays(1), null, null, null, null, 50, true);
+
+        assertThat(page.getTotal()).isEqualTo(1);
+        assertThat(page.getItems()).singleElement()
+                .satisfies(row -> {
+                    assertThat(row.getEmpid()).isEqualTo("E3");
+                    assertThat(row.getDate()).isEqualTo(FIRST_DAY.plusDays(1));
+                });
+    }
+
+    private void seed(int users, int days) {
+        for (int u = 1; u <= users; u++) {
+            String empid = "E" + u;
+            int userId = insertUser(empid, 30000);
+            for (int d = 0; d < days; d++) {
+                insertAttendance(userId, empid, FIRST_DAY.plusDays(d), "PRESENT");
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import com.example.employee_service_mama.dto.PayrollPage;
+import com.example.employee_service_mama.dto.PayrollRowDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Payroll listing: keyset pages on wallet id, filtered to one cycle
+class PayrollExportServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDate PREVIOUS_START = LocalDate.of(2025, 1, 24);
+    private static final LocalDate PREVIOUS_END = LocalDate.of(2025, 2, 23);
+    private static final LocalDate CURRENT_START = LocalDate.of(2025, 2, 24);
+
+    @Autowired
+    private PayrollExportService payrollExportService;
+
+    @Test
+    void activePagesCoverEveryWalletOnce() {
+        List<Integer> active = seed(7, 2);
+
+        List<Integer> seen = new ArrayList<>();
+        PayrollPage page = payrollExportService.page(null, null, 3);
+        while (true) {
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(3);
+            page.getItems().forEach(row -> seen.add(row.getWalletId()));
+            if (!page.isHasMore()) break;
+            page = payrollExportService.page(null, page.getNextAfterId(), 3);
+        }
+
+        assertThat(seen).containsExactlyElementsOf(active);
+        assertThat(page.getNextAfterId()).isNull();
+    }
+
+    @Test
+    void exactPageSizeEndsWithoutAnEmptyPage() {
+        seed(3, 0);
+
+        PayrollPage page = payrollExportService.page(null, null, 3);
+
+        assertThat(page.getItems()).hasSize(3);
+        assertThat(page.isHasMore()).isFalse();
+    }
+
+    @Test
+    void cycleStartSelectsClosedCycles() {
+        seed(4, 2);
+
+        PayrollPage page = payrollExportService.page(PREVIOUS_START, null, 50);
+
+        assertThat(page.getItems()).hasSize(2)
+                .extracting(PayrollRowDTO::getCycleEnd).containsOnly(PREVIOUS_END);
+    }
+
+    @Test
+    void exportStreamsHeaderAndOneLinePerWallet() throws Exception {
+        seed(5, 1);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        payrollExportService.export(null, "csv", out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).trim().split("\\R");
+        assertThat(lines).hasSize(1 + 5);
+    }
+
+    @Test
+    void csvExportNeutralizesFormulaText() throws Exception {
+        seed(1, 0);
+        jdbcTemplate.update("UPDATE users SET full_name = '=HYPERLINK(\"http://x\")' WHERE empid = 'E1'");
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        payrollExportService.export(null, "csv", out);
+
+        String row = out.toString(StandardCharsets.UTF_8).trim().split("\\R")[1];
+        assertThat(row).contains("\"'=HYPERLINK(\"\"http://x\"\")\"");
+    }
+
+    // `activeUsers` users with an active wallet, the first `closedUsers` of them also with a closed one;
+    // returns the active wallet ids in ascending order
+    private List<Integer> seed(int activeUsers, int closedUsers) {
+        List<Integer> active = new ArrayList<>();
+        for (int i = 1; i <= activeUsers; i++) {
+            String empid = "E" + i;
+            int userId = insertUser(empid, 30000);
+            if (i <= closedUsers) insertWallet(userId, empid, 30000, 25000, PREVIOUS_START, PREVIOUS_END);
+            active.add(insertWallet(userId, empid, 30000, 1000, CURRENT_START, null));
+        }
+        return active;
+    }
+}
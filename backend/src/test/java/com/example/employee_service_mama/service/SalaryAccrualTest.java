@@ -0,0 +1,101 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+// Daily accrual through the salary_accrual ledger: reruns credit nothing, corrections the difference
+class SalaryAccrualTest extends PostgresIntegrationTest {
+
+    private static final LocalDate WEDNESDAY = LocalDate.of(2025, 3, 12);
+    private static final LocalDate CYCLE_START = LocalDate.of(2025, 2, 24);
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    void firstRunOpensCycleAndCredits() {
+        int present = insertUser("E1", 30000);
+        int halfDay = insertUser("E2", 30000);
+        int absent = insertUser("E3", 30000);
+        insertAttendance(present, "E1", WEDNESDAY, "PRESENT");
+        insertAttendance(halfDay, "E2", WEDNESDAY, "HALF_DAY");
+        insertAttendance(absent, "E3", WEDNESDAY, "ABSENT");
+
+        walletService.accrueDailySalary(WEDNESDAY);
+
+        assertThat(earned(present)).isCloseTo(1000, within(0.001));
+        assertThat(earned(halfDay)).isCloseTo(500, within(0.001));
+        assertThat(earned(absent)).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM salary WHERE cycle_end IS NULL AND cycle_start = ?",
+                Integer.class, CYCLE_START)).isEqualTo(3);
+    }
+
+    @Test
+    void rerunForSameDateCreditsNothing() {
+        int userId = insertUser("E1", 30000);
+        insertAttendance(userId, "E1", WEDNESDAY, "PRESENT");
+
+        walletService.accrueDailySalary(WEDNESDAY);
+        walletService.accrueDailySalary(WEDNESDAY);
+        walletService.reaccrue(List.of(WEDNESDAY));
+
+        assertThat(earned(userId)).isCloseTo(1000, within(0.001));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM salary_accrual WHERE user_id = ?", Integer.class, userId)).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM salary WHERE user_id = ?", Integer.class, userId)).isEqualTo(1);
+    }
+
+    @Test
+    void correctionsCreditOnlyTheDifference() {
+        int userId = insertUser("E1", 30000);
+        insertAttendance(userId, "E1", WEDNESDAY, "PRESENT");
+        walletService.accrueDailySalary(WEDNESDAY);
+
+        setStatus(userId, "HALF_DAY");
+        walletService.reaccrue(List.of(WEDNESDAY));
+        assertThat(earned(userId)).isCloseTo(500, within(0.001));
+
+        setStatus(userId, "ABSENT");
+        walletService.reaccrue(List.of(WEDNESDAY));
+        assertThat(earned(userId)).isCloseTo(0, within(0.001));
+
+        setStatus(userId, "LEAVE");
+        walletService.reaccrue(List.of(WEDNESDAY));
+        assertThat(earned(userId)).isCloseTo(1000, within(0.001));
+
+        // Row removed altogether → the day is reversed
+        jdbcTemplate.update("DELETE FROM attendance WHERE user_id = ? AND date = ?", userId, WEDNESDAY);
+        walletService.reaccrue(List.of(WEDNESDAY));
+        assertThat(earned(userId)).isCloseTo(0, within(0.001));
+    }
+
+    @Test
+    void reaccrueIgnoresDatesNeverAccrued() {
+        int userId = insertUser("E1", 30000);
+        insertAttendance(userId, "E1", WEDNESDAY, "PRESENT");
+
+        assertThat(walletService.reaccrue(List.of(WEDNESDAY))).isZero();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM salary_accrual", Integer.class)).isZero();
+    }
+
+    private double earned(int userId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT current_month_earned FROM salary WHERE user_id = ? AND cycle_end IS NULL",
+                Double.class, userId);
+    }
+
+    private void setStatus(int userId, String status) {
+        jdbcTemplate.update("UPDATE attendance SET status = ? WHERE user_id = ? AND date = ?",
+                status, userId, WEDNESDAY);
+    }
+}
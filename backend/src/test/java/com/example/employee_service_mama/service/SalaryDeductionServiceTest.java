@@ -0,0 +1,114 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import com.example.employee_service_mama.dto.DeductionEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+// Deductions on the active cycle: in-database increments plus a salary_deduction ledger row each
+class SalaryDeductionServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDate CYCLE_START = LocalDate.of(2025, 2, 24);
+
+    @Autowired
+    private SalaryDeductionService deductionService;
+
+    @Test
+    void bulkSumsPerEmployee() {
+        int first = wallet("E1");
+        int second = wallet("E2");
+
+        Map<String, Object> report = deductionService.applyBulk(List.of(
+                entry("E1", 100.0, "Advance"),
+                entry("E2", 50.0, "Canteen"),
+                entry("E1", 25.0, "Canteen")
+        ));
+
+        assertThat(report.get("applied")).isEqualTo(3);
+        assertThat((Double) report.get("totalAmount")).isCloseTo(175, within(0.001));
+        assertThat(deduction(first)).isCloseTo(125, within(0.001));
+        assertThat(deduction(second)).isCloseTo(50, within(0.001));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM salary_deduction", Integer.class))
+                .isEqualTo(3);
+    }
+
+    @Test
+    void bulkRejectsTheWholeRequestForAnInvalidOrUnknownEntry() {
+        int first = wallet("E1");
+
+        assertThatThrownBy(() -> deductionService.applyBulk(List.of(
+                entry("E1", 100.0, "Advance"),
+                entry("E1", -5.0, "Credit")
+        ))).isInstanceOf(IllegalArgumentException.class);
+
+        assertThatThrownBy(() -> deductionService.applyBulk(List.of(
+                entry("E1", 100.0, "Advance"),
+                entry("NOBODY", 10.0, "Typo")
+        ))).isInstanceOf(IllegalArgumentException.class).hasMessageContaining("NOBODY");
+
+        assertThatThrownBy(() -> deductionService.applyBulk(null))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(deduction(first)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM salary_deduction", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void bulkIsAllOrNothing() {
+        int first = wallet("E1");
+        int second = wallet("E2");
+
+        // Fail the ledger insert for one entry → the wallet increments must roll back with it
+        jdbcTemplate.execute("ALTER TABLE salary_deduction ADD CONSTRAINT test_no_boom CHECK (reason <> 'boom')");
+        try {
+            assertThatThrownBy(() -> deductionService.applyBulk(List.of(
+                    entry("E1", 100.0, "Advance"),
+                    entry("E2", 50.0, "boom")
+            ))).isInstanceOf(DataAccessException.class);
+        } finally {
+            jdbcTemplate.execute("ALTER TABLE salary_deduction DROP CONSTRAINT test_no_boom");
+        }
+
+        assertThat(deduction(first)).isZero();
+        assertThat(deduction(second)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM salary_deduction", Integer.class))
+                .isZero();
+    }
+
+    @Test
+    void singleDeductionRejectsNonPositiveAmounts() {
+        int userId = wallet("E1");
+
+        assertThatThrownBy(() -> deductionService.apply("E1", -100.0, "Credit"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> deductionService.apply("E1", 0.0, null))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(deductionService.apply("E1", 40.0, "Advance")).isTrue();
+        assertThat(deductionService.apply("NOBODY", 40.0, "Advance")).isFalse();
+
+        assertThat(deduction(userId)).isCloseTo(40, within(0.001));
+    }
+
+    // Active wallet for a new user; returns the wallet id
+    private int wallet(String empid) {
+        return insertWallet(insertUser(empid, 30000), empid, 30000, 0, CYCLE_START, null);
+    }
+
+    private double deduction(int walletId) {
+        return jdbcTemplate.queryForObject("SELECT deduction FROM salary WHERE id = ?", Double.class, walletId);
+    }
+
+    private static DeductionEntry entry(String empid, Double amount, String reason) {
+        return new DeductionEntry(empid, amount, reason);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Company-wide cycle rollover on the 23rd: close, open the next cycle on the 24th, safe to fire twice
+class SalaryRolloverTest extends PostgresIntegrationTest {
+
+    private static final LocalDate CYCLE_START = LocalDate.of(2025, 2, 24);
+    private static final LocalDate CLOSE_DATE = LocalDate.of(2025, 3, 23);
+    private static final LocalDate NEXT_START = LocalDate.of(2025, 3, 24);
+
+    @Autowired
+    private WalletService walletService;
+
+    @Test
+    void rolloverClosesActiveCyclesAndOpensEmptyOnes() {
+        int first = insertUser("E1", 30000);
+        int second = insertUser("E2", 60000);
+        insertWallet(first, "E1", 30000, 18000, CYCLE_START, null);
+        insertWallet(second, "E2", 60000, 40000, CYCLE_START, null);
+
+        assertThat(walletService.rolloverCycles(CLOSE_DATE).getRowsAffected()).isEqualTo(2);
+
+        for (int userId : new int[]{first, second}) {
+            Map<String, Object> closed = jdbcTemplate.queryForMap(
+                    "SELECT cycle_end, current_month_earned FROM salary WHERE user_id = ? AND cycle_start = ?",
+                    userId, CYCLE_START);
+            assertThat(((Date) closed.get("cycle_end")).toLocalDate()).isEqualTo(CLOSE_DATE);
+            assertThat(((Number) closed.get("current_month_earned")).doubleValue()).isPositive();
+
+            Map<String, Object> active = jdbcTemplate.queryForMap(
+                    "SELECT cycle_start, current_month_earned, deduction, daily_rate FROM salary "
+                            + "WHERE user_id = ? AND cycle_end IS NULL", userId);
+            assertThat(((Date) active.get("cycle_start")).toLocalDate()).isEqualTo(NEXT_START);
+            assertThat(((Number) active.get("current_month_earned")).doubleValue()).isZero();
+            assertThat(((Number) active.get("deduction")).doubleValue()).isZero();
+            assertThat(((Number) active.get("daily_rate")).doubleValue()).isPositive();
+        }
+    }
+
+    @Test
+    void secondRunClosesAndOpensNothing() {
+        int userId = insertUser("E1", 30000);
+        insertWallet(userId, "E1", 30000, 18000, CYCLE_START, null);
+
+        walletService.rolloverCycles(CLOSE_DATE);
+        assertThat(walletService.rolloverCycles(CLOSE_DATE).getRowsAffected()).isZero();
+
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM salary WHERE user_id = ?", Integer.class, userId)).isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM salary WHERE user_id = ? AND cycle_end IS NULL",
+                Integer.class, userId)).isEqualTo(1);
+    }
+
+    @Test
+    void activeCycleIsUniquePerUser() {
+        int userId = insertUser("E1", 30000);
+        insertWallet(userId, "E1", 30000, 0, CYCLE_START, null);
+
+        // uk_salary_active_user, created at startup by SalaryWalletMigration
+        assertThatThrownBy(() -> insertWallet(userId, "E1", 30000, 0, CYCLE_START, null))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.employee_service_mama.service;
+
+import com.example.employee_service_mama.PostgresIntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Friday or Monday ABSENT → Sat & Sun ABSENT, reverted once neither side is ABSENT
+class SandwichPolicyServiceTest extends PostgresIntegrationTest {
+
+    private static final LocalDate FRIDAY = LocalDate.of(2025, 3, 14);
+    private static final LocalDate SATURDAY = FRIDAY.plusDays(1);
+    private static final LocalDate SUNDAY = FRIDAY.plusDays(2);
+    private static final LocalDate MONDAY = FRIDAY.plusDays(3);
+
+    @Autowired
+    private SandwichPolicyService sandwichPolicyService;
+
+    @Test
+    void absentFridayMarksWeekendOnceAndRevertsWhenCorrected() {
+        int userId = insertUser("E1", 30000);
+        insertAttendance(userId, "E1", FRIDAY, "ABSENT");
+
+        assertThat(sandwichPolicyService.onAttendanceWritten(List.of(userId), FRIDAY)).isEqualTo(2);
+        assertThat(statusOf(userId, SATURDAY)).isEqualTo("ABSENT");
+        assertThat(statusOf(userId, SUNDAY)).isEqualTo("ABSENT");
+
+        // Rerun → nothing left to mark or revert
+        assertThat(sandwichPolicyService.onAttendanceWritten(List.of(userId), FRIDAY)).isZero();
+
+        jdbcTemplate.update("UPDATE attendance SET status = 'PRESENT' WHERE user_id = ? AND date = ?", userId, FRIDAY);
+        assertThat(sandwichPolicyService.onAttendanceWritten(List.of(userId), FRIDAY)).isEqualTo(2);
+        assertThat(statusOf(userId, SATURDAY)).isNull();
+        assertThat(statusOf(userId, SUNDAY)).isNull();
+    }
+
+    @Test
+    void existingWeekendRowIsRestoredNotDeleted() {
+        int userId = insertUser("E1", 30000);
+        insertAttendance(userId, "E1", SATURDAY, "PRESENT", null, null, "Weekend release");
+        insertAttendance(userId, "E1", MONDAY, "ABSENT");
+
+        sandwichPolicyService.onAttendanceWritten(List.of(userId), MONDAY);
+        assertThat(statusOf(userId, SATURDAY)).isEqualTo("ABSENT");
+        assertThat(statusOf(userId, SUNDAY)).isEqualTo("ABSENT");
+
+        jdbcTemplate.update("UPDATE attendance SET status = 'PRESENT' WHERE user_id = ? AND date = ?", userId, MONDAY);
+        sandwichPolicyService.onAttendanceWritten(List.of(userId), MONDAY);
+
+        assertThat(statusOf(userId, SATURDAY)).isEqualTo("PRESENT");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT remarks FROM attendance WHERE user_id = ? AND date = ?",
+                String.class, userId, SATURDAY)).isEqualTo("Weekend release");
+        assertThat(statusOf(userId, SUNDAY)).isNull();
+    }
+
+    @Test
+    void weekendStaysWhileTheOtherSideIsStillAbsent() {
+        int userId = insertUser("E1", 30000);
+        insertAttendance(userId, "E1", FRIDAY, "ABSENT");
+        insertAttendance(userId, "E1", MONDAY, "ABSENT");
+        sandwichPolicyService.onAttendanceWritten(List.of(userId), FRIDAY);
+
+        jdbcTemplate.update("UPDATE attendance SET status = 'PRESENT' WHERE user_id = ? AND date = ?", userId, FRIDAY);
+        sandwichPolicyService.onAttendanceWritten(List.of(userId), FRIDAY);
+
+        assertThat(statusOf(userId, SATURDAY)).isEqualTo("ABSENT");
+        assertThat(statusOf(userId, SUNDAY)).isEqualTo("ABSENT");
+    }
+
+    @Test
+    void midweekDatesAreIgnored() {
+        int userId = insertUser("E1", 30000);
+        LocalDate wednesday = FRIDAY.minusDays(2);
+        insertAttendance(userId, "E1", wednesday, "ABSENT");
+
+        assertThat(sandwichPolicyService.onAttendanceWritten(List.of(userId), wednesday)).isZero();
+    }
+}
@@ -5,6 +5,8 @@ import { Card, CardHeader, CardTitle, CardContent } from "../../../components/ui
 import { Input } from "../../../components/ui/Input";
 import API from "../../../api/axiosInstance";
 
+const PAGE_SIZE = 50;
+
 interface Attendance {
     id: number;
     userId: number;
@@ -19,23 +21,32 @@ interface Attendance {
 export default function Attendancereport() {
     const [records, setRecords] = useState<Attendance[]>([]);
     const [loading, setLoading] = useState(true);
+    const [loadingMore, setLoadingMore] = useState(false);
     const [search, setSearch] = useState("");
     const [dateFilter, setDateFilter] = useState("");
-
-    const loadAttendance = async () => {
-        setLoading(true);
+    const [total, setTotal] = useState<number | null>(null);
+    const [cursor, setCursor] = useState<{ beforeDate: string; beforeId: number } | null>(null);
+
+    // Keyset pages from /attendance/search: the first page also returns the total,
+    // "Load more" continues after the last row shown
+    const loadAttendance = async (more = false) => {
+        if (more) setLoadingMore(true);
+        else setLoading(true);
         try {
-            const params: any = {};
+            const params: any = { size: PAGE_SIZE, count: !more };
             if (search) params.search = search;
             if (dateFilter) params.date = dateFilter;
+            if (more && cursor) {
+                params.beforeDate = cursor.beforeDate;
+                params.beforeId = cursor.beforeId;
+            }
 
-            const res = await API.get("/attendance/all", { params });
+            const res = await API.get("/attendance/search", { params });
 
-            // ⭐ FIX – Map backend fields to frontend fields
-            const mapped = res.data.map((item: any) => ({
+            const mapped = res.data.items.map((item: any) => ({
                 id: item.id,
-                userId: item.userId || item.user?.id,
-                fullName: item.fullName || item.user?.fullName,
+                userId: item.userId,
+                fullName: item.fullName,
                 empid: item.empid,
                 date: item.date,
 
@@ -46,11 +57,16 @@ export default function Attendancereport() {
                 status: item.status,
             }));
 
-            setRecords(mapped);
+            setRecords((prev) => (more ? [...prev, ...mapped] : mapped));
+            if (!more) setTotal(res.data.total ?? null);
+            setCursor(res.data.hasMore
+                ? { beforeDate: res.data.nextBeforeDate, beforeId: res.data.nextBeforeId }
+                : null);
         } catch (err) {
             console.error("Failed to load attendance", err);
         } finally {
             setLoading(false);
+            setLoadingMore(false);
         }
     };
 
@@ -59,7 +75,7 @@ export default function Attendancereport() {
     }, []);
 
     const handleFilter = () => {
-        loadAttendance();
+        loadAttendance(false);
     };
 
     return (
@@ -139,7 +155,7 @@ export default function Attendancereport() {
                                             key={r.id}
                                             initial={{ opacity: 0, y: 10 }}
                                             animate={{ opacity: 1, y: 0 }}
-                                            transition={{ delay: index * 0.03 }}
+                                            transition={{ delay: (index % PAGE_SIZE) * 0.03 }}
                                             className="border-b border-gray-200 dark:border-gray-700 text-sm"
                                         >
                                             <td className="px-4 py-3 text-gray-900 dark:text-gray-100">
@@ -181,6 +197,22 @@ export default function Attendancereport() {
                                     ))}
                                 </tbody>
                             </table>
+
+                            <div className="flex items-center justify-between pt-4 text-sm text-gray-500">
+                                <span>
+                                    Showing {records.length}
+                                    {total !== null ? ` of ${total}` : ""} records
+                                </span>
+                                {cursor && (
+                                    <button
+                                        onClick={() => loadAttendance(true)}
+                                        disabled={loadingMore}
+                                        className="px-4 py-2 bg-blue-600 text-white rounded-lg hover:bg-blue-700 transition text-sm font-medium disabled:opacity-50"
+                                    >
+                                        {loadingMore ? "Loading..." : "Load more"}
+                                    </button>
+                                )}
+                            </div>
                         </div>
                     )}
                 </CardContent>
@@ -45,6 +45,7 @@ export default function MyAttendance() {
     if (!s) return "absent";
     const val = s.toLowerCase().trim();
 
+    if (val.includes("holiday")) return "holiday";
     if (val.includes("late")) return "late";
     if (val.includes("half")) return "half_day";
     if (val.includes("leave")) return "leave";
@@ -86,7 +87,9 @@ export default function MyAttendance() {
 
       setAttendance(sorted);
 
-      const workingDays = mapped.filter((a) => a.status !== "weekend");
+      const workingDays = mapped.filter(
+        (a) => a.status !== "weekend" && a.status !== "holiday"
+      );
 
       setStats({
         present: workingDays.filter((a) => a.status === "present").length,
@@ -114,6 +117,7 @@ export default function MyAttendance() {
       case "leave":
         return <Calendar className="w-5 h-5 text-blue-500" />;
       case "weekend":
+      case "holiday":
         return <Calendar className="w-5 h-5 text-gray-400" />;
       default:
         return null;
@@ -133,6 +137,7 @@ export default function MyAttendance() {
       case "leave":
         return "bg-blue-50 dark:bg-blue-900/20 text-blue-700 dark:text-blue-400";
       case "weekend":
+      case "holiday":
         return "bg-gray-100 dark:bg-gray-700 text-gray-700 dark:text-gray-300";
       default:
         return "";